@@ -3,6 +3,7 @@ plugins {
     eclipse
     idea
     id("com.gradleup.shadow") version "9.0.0-beta6"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "de.stylelabor"
@@ -44,6 +45,15 @@ dependencies {
     
     // JSON parsing
     implementation("org.json:json:20231013")
+
+    // Tests (Paper API for the Adventure classes used by the utilities)
+    testImplementation("io.papermc.paper:paper-api:1.21.1-R0.1-SNAPSHOT")
+    testImplementation(platform("org.junit:junit-bom:5.10.2"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+    // Benchmarks (./gradlew jmh)
+    jmh("io.papermc.paper:paper-api:1.21.1-R0.1-SNAPSHOT")
 }
 
 tasks {
@@ -76,6 +86,21 @@ tasks {
 
     compileJava {
         options.encoding = "UTF-8"
-        options.compilerArgs.add("-parameters")
+        options.compilerArgs.addAll(listOf("-parameters", "-Xlint:all"))
+    }
+
+    // Tests and benchmarks only use Adventure and plain Java; keep them warning-free
+    compileTestJava {
+        options.encoding = "UTF-8"
+        options.compilerArgs.addAll(listOf("-Xlint:all", "-Werror"))
+    }
+
+    test {
+        useJUnitPlatform()
+    }
+
+    compileJmhJava {
+        options.encoding = "UTF-8"
+        options.compilerArgs.addAll(listOf("-Xlint:all", "-Werror"))
     }
 }
@@ -0,0 +1,117 @@
+package de.stylelabor.statusplugin.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Legacy code conversion: the single-pass scanner against the previous regex
+ * and String.replace implementation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColorUtilBenchmark {
+
+    private static final Pattern HEX_PATTERN = Pattern.compile("&#([A-Fa-f0-9]{6})");
+    private static final Pattern BUKKIT_HEX_PATTERN = Pattern.compile(
+            "&x(&[A-Fa-f0-9]){6}", Pattern.CASE_INSENSITIVE);
+
+    @Param({ "plain", "legacy", "hex", "mixed" })
+    public String input;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        text = switch (input) {
+            case "plain" -> "<gray>Steve</gray> <dark_gray>»</dark_gray> <white>hello everyone</white>";
+            case "legacy" -> "&c[Admin] &7Steve &8» &fhello everyone";
+            case "hex" -> "&#ff5555[Admin] &x&a&a&a&a&a&aSteve &#555555» &#ffffffhello everyone";
+            default -> "&c&l[Admin] &#ff00aaSteve &r<dark_gray>»</dark_gray> &7& hello &zeveryone";
+        };
+    }
+
+    @Benchmark
+    public String singlePass() {
+        return ColorUtil.convertLegacyToMiniMessage(text);
+    }
+
+    @Benchmark
+    public String regex() {
+        return regexConvert(text);
+    }
+
+    /**
+     * The previous convertLegacyToMiniMessage
+     */
+    private static String regexConvert(String text) {
+        Matcher hexMatcher = HEX_PATTERN.matcher(text);
+        StringBuilder result = new StringBuilder();
+        while (hexMatcher.find()) {
+            hexMatcher.appendReplacement(result, "<#" + hexMatcher.group(1) + ">");
+        }
+        hexMatcher.appendTail(result);
+        text = result.toString();
+
+        Matcher bukkitHexMatcher = BUKKIT_HEX_PATTERN.matcher(text);
+        result = new StringBuilder();
+        while (bukkitHexMatcher.find()) {
+            String match = bukkitHexMatcher.group();
+            String hex = match.replaceAll("&[xX]|&", "");
+            bukkitHexMatcher.appendReplacement(result, "<#" + hex + ">");
+        }
+        bukkitHexMatcher.appendTail(result);
+        text = result.toString();
+
+        return text.replace("&0", "<black>")
+                .replace("&1", "<dark_blue>")
+                .replace("&2", "<dark_green>")
+                .replace("&3", "<dark_aqua>")
+                .replace("&4", "<dark_red>")
+                .replace("&5", "<dark_purple>")
+                .replace("&6", "<gold>")
+                .replace("&7", "<gray>")
+                .replace("&8", "<dark_gray>")
+                .replace("&9", "<blue>")
+                .replace("&a", "<green>")
+                .replace("&A", "<green>")
+                .replace("&b", "<aqua>")
+                .replace("&B", "<aqua>")
+                .replace("&c", "<red>")
+                .replace("&C", "<red>")
+                .replace("&d", "<light_purple>")
+                .replace("&D", "<light_purple>")
+                .replace("&e", "<yellow>")
+                .replace("&E", "<yellow>")
+                .replace("&f", "<white>")
+                .replace("&F", "<white>")
+                .replace("&k", "<obfuscated>")
+                .replace("&K", "<obfuscated>")
+                .replace("&l", "<bold>")
+                .replace("&L", "<bold>")
+                .replace("&m", "<strikethrough>")
+                .replace("&M", "<strikethrough>")
+                .replace("&n", "<underlined>")
+                .replace("&N", "<underlined>")
+                .replace("&o", "<italic>")
+                .replace("&O", "<italic>")
+                .replace("&r", "<reset>")
+                .replace("&R", "<reset>");
+    }
+}
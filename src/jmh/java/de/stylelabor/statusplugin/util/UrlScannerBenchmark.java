@@ -0,0 +1,66 @@
+package de.stylelabor.statusplugin.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+
+/**
+ * Finding the URLs in a chat message: the hand-written scanner against
+ * {@link UrlScanner#URL_PATTERN}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UrlScannerBenchmark {
+
+    @Param({ "none", "one", "several" })
+    public String input;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        text = switch (input) {
+            case "none" -> "anyone up for a round of bedwars later? meet at spawn in ten minutes";
+            case "one" -> "check out the new build at https://example.com/gallery/spawn?id=42 it looks great";
+            default -> "rules: https://example.com/rules, map: http://map.example.com:8123/#world;0;0 "
+                    + "and discord https://discord.gg/example";
+        };
+    }
+
+    @Benchmark
+    public int scanner() {
+        int hash = 0;
+        int start = UrlScanner.indexOfUrl(text, 0);
+        while (start >= 0) {
+            int end = UrlScanner.urlEnd(text, start);
+            hash = 31 * hash + end - start;
+            start = UrlScanner.indexOfUrl(text, end);
+        }
+        return hash;
+    }
+
+    @Benchmark
+    public int regex() {
+        int hash = 0;
+        Matcher matcher = UrlScanner.URL_PATTERN.matcher(text);
+        while (matcher.find()) {
+            hash = 31 * hash + matcher.end() - matcher.start();
+        }
+        return hash;
+    }
+}
@@ -43,6 +43,10 @@ public class StatusPlugin extends JavaPlugin {
     private NametagManager nametagManager;
     private DeathTracker deathTracker;
     private CountryManager countryManager;
+    private WorldCountTracker worldCountTracker;
+    private VanishManager vanishManager;
+    private PlaceholderSnapshotManager placeholderSnapshotManager;
+    private MainThreadQueue mainThreadQueue;
 
     // Integration instances
     private @Nullable PlaceholderAPIExpansion placeholderExpansion;
@@ -65,11 +69,17 @@ public class StatusPlugin extends JavaPlugin {
 
         // Initialize managers with dependency injection
         statusManager = new StatusManager(this, configManager);
-        deathTracker = new DeathTracker(this, configManager);
+        mainThreadQueue = new MainThreadQueue(this, configManager);
+        deathTracker = new DeathTracker(this, configManager, mainThreadQueue);
         countryManager = new CountryManager(this, configManager);
-        chatManager = new ChatManager(this, configManager, statusManager, deathTracker, countryManager);
-        tabListManager = new TabListManager(this, configManager, statusManager, deathTracker, countryManager);
-        nametagManager = new NametagManager(this, configManager, statusManager);
+        worldCountTracker = new WorldCountTracker();
+        vanishManager = new VanishManager(this, configManager, worldCountTracker);
+        placeholderSnapshotManager = new PlaceholderSnapshotManager(this, configManager);
+        chatManager = new ChatManager(this, configManager, statusManager, deathTracker, countryManager,
+                placeholderSnapshotManager);
+        tabListManager = new TabListManager(this, configManager, statusManager, deathTracker, countryManager,
+                worldCountTracker, vanishManager, placeholderSnapshotManager, mainThreadQueue);
+        nametagManager = new NametagManager(this, configManager, statusManager, mainThreadQueue);
 
         // Register listeners
         registerListeners();
@@ -96,12 +106,22 @@ public class StatusPlugin extends JavaPlugin {
             statusManager.saveData();
             deathTracker.saveData();
             countryManager.saveData();
+            countryManager.shutdown();
         }
 
         // Shutdown managers
         if (tabListManager != null) {
             tabListManager.shutdown();
         }
+        if (vanishManager != null) {
+            vanishManager.shutdown();
+        }
+        if (placeholderSnapshotManager != null) {
+            placeholderSnapshotManager.shutdown();
+        }
+        if (mainThreadQueue != null) {
+            mainThreadQueue.shutdown();
+        }
 
         // Unregister PlaceholderAPI expansion
         if (placeholderExpansion != null) {
@@ -115,7 +135,8 @@ public class StatusPlugin extends JavaPlugin {
         var pluginManager = getServer().getPluginManager();
         pluginManager.registerEvents(new ChatListener(this, chatManager, configManager), this);
         pluginManager.registerEvents(new PlayerListener(this, statusManager, tabListManager,
-                nametagManager, deathTracker, countryManager, configManager), this);
+                nametagManager, deathTracker, countryManager, worldCountTracker, vanishManager, placeholderSnapshotManager,
+                mainThreadQueue, configManager), this);
     }
 
     @SuppressWarnings("UnstableApiUsage")
@@ -148,7 +169,8 @@ public class StatusPlugin extends JavaPlugin {
         // PlaceholderAPI integration
         if (Bukkit.getPluginManager().getPlugin("PlaceholderAPI") != null) {
             if (configManager.getConfig().getBoolean("integrations.placeholderapi.enabled", true)) {
-                placeholderExpansion = new PlaceholderAPIExpansion(this, statusManager, deathTracker, countryManager);
+                placeholderExpansion = new PlaceholderAPIExpansion(this, statusManager, deathTracker, countryManager,
+                        worldCountTracker);
                 placeholderExpansion.register();
                 log(Level.INFO, "PlaceholderAPI integration enabled!");
             }
@@ -196,10 +218,15 @@ public class StatusPlugin extends JavaPlugin {
      */
     public void reload() {
         configManager.loadAll();
+        de.stylelabor.statusplugin.util.ColorUtil.clearCaches();
+        de.stylelabor.statusplugin.util.PlaceholderUtil.loadCacheConfig(configManager);
+        mainThreadQueue.reload();
+        placeholderSnapshotManager.reload();
         statusManager.reload();
         deathTracker.reload();
         tabListManager.reload();
         nametagManager.reload();
+        vanishManager.reload();
         debug = configManager.getConfig().getBoolean("general.debug", false);
         log(Level.INFO, "Configuration reloaded!");
     }
@@ -279,6 +306,26 @@ public class StatusPlugin extends JavaPlugin {
         return countryManager;
     }
 
+    @NotNull
+    public WorldCountTracker getWorldCountTracker() {
+        return worldCountTracker;
+    }
+
+    @NotNull
+    public VanishManager getVanishManager() {
+        return vanishManager;
+    }
+
+    @NotNull
+    public PlaceholderSnapshotManager getPlaceholderSnapshotManager() {
+        return placeholderSnapshotManager;
+    }
+
+    @NotNull
+    public MainThreadQueue getMainThreadQueue() {
+        return mainThreadQueue;
+    }
+
     @Nullable
     public TabPluginIntegration getTabPluginIntegration() {
         return tabPluginIntegration;
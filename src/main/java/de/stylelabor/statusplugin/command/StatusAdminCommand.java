@@ -2,8 +2,11 @@ package de.stylelabor.statusplugin.command;
 
 import de.stylelabor.statusplugin.StatusPlugin;
 import de.stylelabor.statusplugin.config.ConfigManager;
+import de.stylelabor.statusplugin.manager.CountryManager;
 import de.stylelabor.statusplugin.manager.DeathTracker;
 import de.stylelabor.statusplugin.manager.StatusManager;
+import de.stylelabor.statusplugin.util.BoundedCache;
+import de.stylelabor.statusplugin.util.ColorUtil;
 import io.papermc.paper.command.brigadier.BasicCommand;
 import io.papermc.paper.command.brigadier.CommandSourceStack;
 import net.kyori.adventure.text.Component;
@@ -28,11 +31,12 @@ import java.util.stream.Collectors;
  * - /status-admin reload - Reload configuration
  * - /status-admin deaths <player> [view|add|remove|set|reset] [amount] - Manage
  * deaths
+ * - /status-admin stats - Show internal performance counters
  */
 @SuppressWarnings("UnstableApiUsage")
 public class StatusAdminCommand implements BasicCommand {
 
-    private static final List<String> SUBCOMMANDS = Arrays.asList("set", "reload", "deaths");
+    private static final List<String> SUBCOMMANDS = Arrays.asList("set", "reload", "deaths", "stats");
     private static final List<String> DEATH_ACTIONS = Arrays.asList("view", "add", "remove", "set", "reset");
 
     private final StatusPlugin plugin;
@@ -70,6 +74,7 @@ public class StatusAdminCommand implements BasicCommand {
             case "set" -> handleSet(sender, args);
             case "reload" -> handleReload(sender);
             case "deaths" -> handleDeaths(sender, args);
+            case "stats" -> handleStats(sender);
             default -> showUsage(sender);
         }
     }
@@ -213,6 +218,69 @@ public class StatusAdminCommand implements BasicCommand {
         sender.sendMessage(plugin.parseMessage(message));
     }
 
+    /**
+     * Handle /status-admin stats
+     */
+    private void handleStats(@NotNull CommandSender sender) {
+        sender.sendMessage(plugin.parseMessage("<gray>StatusPlugin Stats:"));
+
+        var vanish = plugin.getVanishManager();
+        sender.sendMessage(plugin.parseMessage("<white>Vanish</white> <gray>visible: <white>"
+                + vanish.getVisibleCount() + "</white>, vanished: <white>" + vanish.getVanishedPlayers().size()
+                + "</white>, source: <white>" + (vanish.isEventsHooked() ? "events + metadata" : "metadata")
+                + "</white>"));
+
+        CountryManager.LookupStats geo = plugin.getCountryManager().getStats();
+        sender.sendMessage(plugin.parseMessage("<white>Geolocation</white> <gray>lookups: <white>" + geo.lookups()
+                + "</white>, cache hits: <white>" + geo.cacheHits()
+                + "</white>, negative hits: <white>" + geo.negativeCacheHits()
+                + "</white> (<white>" + geo.negativeCacheSize() + "</white> cached)"
+                + ", hedged: <white>" + geo.hedgedRequests()
+                + "</white>, hedge wins: <white>" + geo.hedgeWins() + "</white>"));
+        for (CountryManager.ProviderStats provider : geo.providers()) {
+            sender.sendMessage(plugin.parseMessage("<gray> • <white>" + provider.name() + "</white> ["
+                    + provider.state() + "] requests: <white>" + provider.requests()
+                    + "</white>, ok: <white>" + provider.successes()
+                    + "</white>, failed: <white>" + provider.failures()
+                    + "</white>, skipped: <white>" + provider.shortCircuited()
+                    + "</white>, opened: <white>" + provider.timesOpened() + "</white>"));
+        }
+
+        var snapshots = plugin.getPlaceholderSnapshotManager();
+        sender.sendMessage(plugin.parseMessage("<white>PlaceholderAPI snapshot</white> <gray>"
+                + (snapshots.isEnabled() ? "tokens: <white>" + snapshots.getTokenCount()
+                        + "</white>, last cycle: <white>" + snapshots.getLastCycleMicros()
+                        + "µs</white>, stretch: <white>x" + snapshots.getStretch() + "</white>"
+                        : "<white>disabled</white>")));
+
+        var tabList = plugin.getTabListManager();
+        sender.sendMessage(plugin.parseMessage("<white>Tab list</white> <gray>refresh: <white>"
+                + tabList.getEffectiveRefreshInterval() + "s</white> (base <white>"
+                + tabList.getRefreshInterval() + "s</white>), throttled: <white>"
+                + (tabList.isThrottled() ? "yes" : "no") + "</white>"));
+
+        var queue = plugin.getMainThreadQueue().getStats();
+        sender.sendMessage(plugin.parseMessage("<white>Main thread queue</white> <gray>depth: <white>"
+                + queue.depth() + "</white>, run: <white>" + queue.executed()
+                + "</white>, dropped: <white>" + queue.dropped()
+                + "</white>, sessions: <white>" + queue.sessions()
+                + "</white>, latency avg/max: <white>" + queue.averageLatencyMicros() + "/"
+                + queue.maxLatencyMicros() + "µs</white>, last tick: <white>" + queue.lastDrainMicros()
+                + "µs</white>"));
+
+        sendCacheStats(sender, "Parse cache", ColorUtil.getParseCacheStats());
+        sendCacheStats(sender, "Strip cache", ColorUtil.getStripCacheStats());
+    }
+
+    private void sendCacheStats(@NotNull CommandSender sender, @NotNull String name,
+            @NotNull BoundedCache.Stats stats) {
+        sender.sendMessage(plugin.parseMessage("<white>" + name + "</white> <gray>size: <white>" + stats.size()
+                + "/" + stats.maxSize() + "</white>, hits: <white>" + stats.hits()
+                + "</white>, misses: <white>" + stats.misses()
+                + "</white>, hit rate: <white>" + String.format("%.1f%%", stats.hitRate() * 100)
+                + "</white>, evicted: <white>" + stats.evictions() + "</white>"));
+    }
+
     /**
      * Parse amount from args, returns -1 on error
      */
@@ -246,6 +314,8 @@ public class StatusAdminCommand implements BasicCommand {
                 plugin.parseMessage("<white>/status-admin reload</white> <gray>- Reload configuration</gray>"));
         sender.sendMessage(plugin
                 .parseMessage("<white>/status-admin deaths <player> [view|add|remove|set|reset] [amount]</white>"));
+        sender.sendMessage(
+                plugin.parseMessage("<white>/status-admin stats</white> <gray>- Show performance counters</gray>"));
     }
 
     @Override
@@ -4,6 +4,7 @@ import de.stylelabor.statusplugin.StatusPlugin;
 import de.stylelabor.statusplugin.manager.CountryManager;
 import de.stylelabor.statusplugin.manager.DeathTracker;
 import de.stylelabor.statusplugin.manager.StatusManager;
+import de.stylelabor.statusplugin.manager.WorldCountTracker;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
@@ -25,25 +26,33 @@ import java.text.DecimalFormat;
  * - %statusplugin_mspt% - Server MSPT
  * - %statusplugin_total_deaths% - Total server deaths (formatted)
  * - %statusplugin_total_deaths_raw% - Total server deaths (raw number)
+ * - %statusplugin_country_count_<code>% - Online players from a country
+ * - %statusplugin_top_countries% - Countries with the most online players
+ * - %statusplugin_world_count_<world>% - Visible players in a world
  */
 public class PlaceholderAPIExpansion extends PlaceholderExpansion {
 
     private static final DecimalFormat TPS_FORMAT = new DecimalFormat("#0.00");
     private static final DecimalFormat MSPT_FORMAT = new DecimalFormat("#0.0");
+    private static final String COUNTRY_COUNT_PREFIX = "country_count_";
+    private static final String WORLD_COUNT_PREFIX = "world_count_";
 
     private final StatusPlugin plugin;
     private final StatusManager statusManager;
     private final DeathTracker deathTracker;
     private final CountryManager countryManager;
+    private final WorldCountTracker worldCountTracker;
 
     public PlaceholderAPIExpansion(@NotNull StatusPlugin plugin,
             @NotNull StatusManager statusManager,
             @NotNull DeathTracker deathTracker,
-            @NotNull CountryManager countryManager) {
+            @NotNull CountryManager countryManager,
+            @NotNull WorldCountTracker worldCountTracker) {
         this.plugin = plugin;
         this.statusManager = statusManager;
         this.deathTracker = deathTracker;
         this.countryManager = countryManager;
+        this.worldCountTracker = worldCountTracker;
     }
 
     @Override
@@ -89,6 +98,16 @@ public class PlaceholderAPIExpansion extends PlaceholderExpansion {
             case "total_deaths_raw" -> {
                 return String.valueOf(deathTracker.getTotalDeaths());
             }
+            case "top_countries" -> {
+                return countryManager.getTopCountriesFormat();
+            }
+        }
+
+        if (params.toLowerCase().startsWith(COUNTRY_COUNT_PREFIX)) {
+            return String.valueOf(countryManager.getOnlineCount(params.substring(COUNTRY_COUNT_PREFIX.length())));
+        }
+        if (params.toLowerCase().startsWith(WORLD_COUNT_PREFIX)) {
+            return String.valueOf(worldCountTracker.getPlayersInWorld(params.substring(WORLD_COUNT_PREFIX.length())));
         }
 
         // Player-specific placeholders
@@ -106,10 +125,7 @@ public class PlaceholderAPIExpansion extends PlaceholderExpansion {
                 yield status != null ? status : "";
             }
             case "deaths" -> String.valueOf(deathTracker.getDeaths(player.getUniqueId()));
-            case "deaths_formatted" -> {
-                int deaths = deathTracker.getDeaths(player.getUniqueId());
-                yield "<dark_gray>[</dark_gray><red>☠</red> <red>" + deaths + "</red><dark_gray>]</dark_gray>";
-            }
+            case "deaths_formatted" -> deathTracker.getFormattedDeathsString(deathTracker.getDeaths(player.getUniqueId()));
             case "country" -> countryManager.getCountry(player.getUniqueId()).orElse("");
             case "countrycode" -> countryManager.getCountryCode(player.getUniqueId()).orElse("");
             default -> null;
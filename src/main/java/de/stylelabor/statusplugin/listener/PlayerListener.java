@@ -3,15 +3,21 @@ package de.stylelabor.statusplugin.listener;
 import de.stylelabor.statusplugin.StatusPlugin;
 import de.stylelabor.statusplugin.config.ConfigManager;
 import de.stylelabor.statusplugin.manager.*;
+import de.stylelabor.statusplugin.util.CancellationToken;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.UUID;
+
 /**
  * Handles player join, quit, and death events.
  */
@@ -23,6 +29,10 @@ public class PlayerListener implements Listener {
     private final NametagManager nametagManager;
     private final DeathTracker deathTracker;
     private final CountryManager countryManager;
+    private final WorldCountTracker worldCountTracker;
+    private final VanishManager vanishManager;
+    private final PlaceholderSnapshotManager placeholderSnapshotManager;
+    private final MainThreadQueue mainThreadQueue;
     private final ConfigManager configManager;
 
     public PlayerListener(@NotNull StatusPlugin plugin,
@@ -31,6 +41,10 @@ public class PlayerListener implements Listener {
             @NotNull NametagManager nametagManager,
             @NotNull DeathTracker deathTracker,
             @NotNull CountryManager countryManager,
+            @NotNull WorldCountTracker worldCountTracker,
+            @NotNull VanishManager vanishManager,
+            @NotNull PlaceholderSnapshotManager placeholderSnapshotManager,
+            @NotNull MainThreadQueue mainThreadQueue,
             @NotNull ConfigManager configManager) {
         this.plugin = plugin;
         this.statusManager = statusManager;
@@ -38,9 +52,25 @@ public class PlayerListener implements Listener {
         this.nametagManager = nametagManager;
         this.deathTracker = deathTracker;
         this.countryManager = countryManager;
+        this.worldCountTracker = worldCountTracker;
+        this.vanishManager = vanishManager;
+        this.placeholderSnapshotManager = placeholderSnapshotManager;
+        this.mainThreadQueue = mainThreadQueue;
         this.configManager = configManager;
     }
 
+    /**
+     * Start the country lookup while the player is still logging in
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPreLogin(@NotNull AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED || !countryManager.isEnabled()) {
+            return;
+        }
+
+        countryManager.prefetchCountry(event.getUniqueId(), event.getName(), event.getAddress());
+    }
+
     /**
      * Handle player join
      */
@@ -48,30 +78,50 @@ public class PlayerListener implements Listener {
     public void onPlayerJoin(@NotNull PlayerJoinEvent event) {
         Player player = event.getPlayer();
 
+        // Pending work for this player is cancelled when they quit
+        mainThreadQueue.openSession(player);
+
         // Assign default status if configured
         statusManager.assignDefaultStatus(player);
 
         // Sync deaths with vanilla statistic
         deathTracker.syncWithVanilla(player);
 
-        // Fetch country data asynchronously
+        // Count player as visible/vanished and in their world
+        boolean vanished = vanishManager.trackJoin(player);
+        worldCountTracker.trackJoin(player, vanished);
+
+        // Country data is normally fetched at pre-login; only re-render if the
+        // lookup is still running
         if (countryManager.isEnabled()) {
-            countryManager.fetchCountry(player).thenAccept(data -> {
-                if (data != null) {
-                    // Update tab list after country data is fetched
-                    tabListManager.updatePlayer(player);
-                }
-            });
+            countryManager.trackJoin(player);
+            var countryFetch = countryManager.fetchCountry(player);
+            if (!countryFetch.isDone()) {
+                // Keep only the UUID, so a slow lookup does not hold on to the player
+                UUID uuid = player.getUniqueId();
+                CancellationToken session = mainThreadQueue.sessionToken(player);
+                countryFetch.thenAccept(data -> {
+                    Player online = Bukkit.getPlayer(uuid);
+                    if (data != null && online != null && !session.isCancelled()) {
+                        // Update tab list after country data is fetched
+                        tabListManager.updatePlayer(online,
+                                TabListManager.UPDATE_NAME | TabListManager.UPDATE_HEADER);
+                    }
+                });
+            }
         }
 
+        // Resolve PlaceholderAPI values before the first render
+        placeholderSnapshotManager.refreshPlayer(player);
+
         // Update tab list for this player
         tabListManager.updatePlayer(player);
 
         // Update nametag
         nametagManager.updatePlayer(player);
 
-        // Update tab list for all other players (so they see this player correctly)
-        tabListManager.updateAllPlayers();
+        // Other players only need the new online count; their own entries are unchanged
+        tabListManager.updateServerValues();
 
         plugin.debug(player.getName() + " joined - status: " +
                 statusManager.getStatus(player) + ", deaths: " + deathTracker.getDeaths(player));
@@ -101,16 +151,43 @@ public class PlayerListener implements Listener {
     public void onPlayerQuit(@NotNull PlayerQuitEvent event) {
         Player player = event.getPlayer();
 
+        // Drop queued and in-flight work for this player
+        mainThreadQueue.cancelSession(player.getUniqueId());
+
         // Remove from nametag teams
         nametagManager.removePlayer(player);
 
         // Remove from tab list sorting teams
         tabListManager.removePlayer(player);
 
+        // Remove from per-country and per-world online counters
+        countryManager.trackQuit(player.getUniqueId());
+        worldCountTracker.trackQuit(player.getUniqueId());
+        vanishManager.trackQuit(player.getUniqueId());
+
+        // Push the new online count to the remaining players
+        tabListManager.updateServerValues();
+
+        // Drop cached PlaceholderAPI values; again next tick, when the player is
+        // no longer online, in case an async render cached values meanwhile
+        UUID uuid = player.getUniqueId();
+        de.stylelabor.statusplugin.util.PlaceholderUtil.invalidate(uuid);
+        Bukkit.getScheduler().runTask(plugin,
+                () -> de.stylelabor.statusplugin.util.PlaceholderUtil.invalidate(uuid));
+        placeholderSnapshotManager.invalidate(player.getUniqueId());
+
         // Save data (handled by individual managers with batched saves)
         plugin.debug(player.getName() + " quit");
     }
 
+    /**
+     * Handle player world change
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(@NotNull PlayerChangedWorldEvent event) {
+        worldCountTracker.trackWorldChange(event.getPlayer());
+    }
+
     /**
      * Handle player death
      */
@@ -122,7 +199,7 @@ public class PlayerListener implements Listener {
         deathTracker.recordDeath(player);
 
         // Update tab list to show new death count
-        tabListManager.updatePlayer(player);
+        tabListManager.updatePlayer(player, TabListManager.UPDATE_NAME | TabListManager.UPDATE_HEADER);
 
         plugin.debug(player.getName() + " died - new total: " + deathTracker.getDeaths(player));
     }
@@ -2,22 +2,29 @@ package de.stylelabor.statusplugin.manager;
 
 import de.stylelabor.statusplugin.StatusPlugin;
 import de.stylelabor.statusplugin.config.ConfigManager;
+import de.stylelabor.statusplugin.util.ColorFormat;
+import de.stylelabor.statusplugin.util.ComponentTemplate;
+import de.stylelabor.statusplugin.util.UrlScanner;
 import io.papermc.paper.chat.ChatRenderer;
 import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
 import org.bukkit.configuration.ConfigurationSection;
 import net.kyori.adventure.text.TextReplacementConfig;
 import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.minimessage.MiniMessage;
-import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
-import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 /**
  * Manages chat formatting using Paper's modern ChatRenderer system.
@@ -26,36 +33,43 @@ import java.util.regex.Pattern;
  */
 public class ChatManager {
 
-    private static final Pattern URL_PATTERN = Pattern.compile(
-            "(https?://[\\w\\-._~:/?#\\[\\]@!$&'()*+,;=%]+)",
-            Pattern.CASE_INSENSITIVE);
+    private static final List<String> CHAT_SLOTS = List.of(
+            "status", "player", "message", "deaths", "deaths_formatted", "country", "countrycode");
 
     private final ConfigManager configManager;
     private final StatusManager statusManager;
     private final DeathTracker deathTracker;
     private final CountryManager countryManager;
+    private final PlaceholderSnapshotManager placeholderSnapshotManager;
     private final MiniMessage miniMessage;
 
-    private String chatFormat;
+    private ComponentTemplate chatTemplate;
+    private boolean perViewerRendering;
     private boolean clickableUrls;
-    private String urlStyle;
-    private String urlHover;
+    // URL style with a <url> slot, or null for the plain aqua fallback
+    @Nullable
+    private ComponentTemplate urlTemplate;
+    @Nullable
+    private Component urlHover;
+    private TextReplacementConfig urlReplacement;
 
     private boolean statusColorsEnabled;
-    private final Map<String, String> statusColors = new HashMap<>();
+    private final Map<String, ColorFormat> statusColors = new HashMap<>();
 
     private boolean nameColorsEnabled;
-    private final Map<String, String> nameColors = new HashMap<>();
+    private final Map<String, ColorFormat> nameColors = new HashMap<>();
 
     public ChatManager(@NotNull StatusPlugin plugin,
             @NotNull ConfigManager configManager,
             @NotNull StatusManager statusManager,
             @NotNull DeathTracker deathTracker,
-            @NotNull CountryManager countryManager) {
+            @NotNull CountryManager countryManager,
+            @NotNull PlaceholderSnapshotManager placeholderSnapshotManager) {
         this.configManager = configManager;
         this.statusManager = statusManager;
         this.deathTracker = deathTracker;
         this.countryManager = countryManager;
+        this.placeholderSnapshotManager = placeholderSnapshotManager;
         this.miniMessage = plugin.getMiniMessage();
         loadConfig();
     }
@@ -67,15 +81,26 @@ public class ChatManager {
         var config = configManager.getConfig();
         String rawChatFormat = config.getString("chat.format",
                 "<status> <gray><player></gray> <dark_gray>»</dark_gray> <white><message></white>");
-        chatFormat = de.stylelabor.statusplugin.util.ColorUtil.convertLegacyToMiniMessage(rawChatFormat);
+        chatTemplate = ComponentTemplate.compile(
+                de.stylelabor.statusplugin.util.ColorUtil.convertLegacyToMiniMessage(rawChatFormat), CHAT_SLOTS);
+        placeholderSnapshotManager.registerTokens("chat", chatTemplate.getPlaceholderTokens());
 
+        perViewerRendering = config.getBoolean("chat.per-viewer-rendering", false);
         clickableUrls = config.getBoolean("chat.clickable-urls", true);
 
+        // URL style and hover are parsed once here instead of for every link
         String rawUrlStyle = config.getString("chat.url-style", "<aqua><u>");
-        urlStyle = de.stylelabor.statusplugin.util.ColorUtil.convertLegacyToMiniMessage(rawUrlStyle);
+        String urlStyle = de.stylelabor.statusplugin.util.ColorUtil.convertLegacyToMiniMessage(rawUrlStyle);
+        urlTemplate = urlStyle.isEmpty() ? null : ComponentTemplate.compile(urlStyle + "<url>", List.of("url"));
 
         String rawUrlHover = config.getString("chat.url-hover", "<gray>Click to open URL");
-        urlHover = de.stylelabor.statusplugin.util.ColorUtil.convertLegacyToMiniMessage(rawUrlHover);
+        String hover = de.stylelabor.statusplugin.util.ColorUtil.convertLegacyToMiniMessage(rawUrlHover);
+        urlHover = hover.isEmpty() ? null : miniMessage.deserialize(hover);
+
+        urlReplacement = TextReplacementConfig.builder()
+                .match(UrlScanner.URL_PATTERN)
+                .replacement((result, builder) -> urlComponent(result.group()))
+                .build();
 
         statusColorsEnabled = config.getBoolean("chat.status-colors.enabled", false);
         statusColors.clear();
@@ -84,8 +109,8 @@ public class ChatManager {
             for (String key : colors.getKeys(false)) {
                 String color = colors.getString(key);
                 if (color != null) {
-                    statusColors.put(key.toUpperCase(),
-                            de.stylelabor.statusplugin.util.ColorUtil.convertLegacyToMiniMessage(color));
+                    statusColors.put(key.toUpperCase(), ColorFormat.parse(
+                            de.stylelabor.statusplugin.util.ColorUtil.convertLegacyToMiniMessage(color)));
                 }
             }
         }
@@ -97,8 +122,8 @@ public class ChatManager {
             for (String key : nameSection.getKeys(false)) {
                 String color = nameSection.getString(key);
                 if (color != null) {
-                    nameColors.put(key.toUpperCase(),
-                            de.stylelabor.statusplugin.util.ColorUtil.convertLegacyToMiniMessage(color));
+                    nameColors.put(key.toUpperCase(), ColorFormat.parse(
+                            de.stylelabor.statusplugin.util.ColorUtil.convertLegacyToMiniMessage(color)));
                 }
             }
         }
@@ -112,36 +137,70 @@ public class ChatManager {
     }
 
     /**
-     * Create a ChatRenderer for the given player
+     * Create a ChatRenderer for the given player.
+     * Unless per-viewer rendering is enabled, the message is rendered once and
+     * the same component is sent to every viewer.
      */
     @NotNull
     public ChatRenderer createRenderer(@NotNull Player player) {
-        return new StatusChatRenderer(player);
+        StatusChatRenderer renderer = new StatusChatRenderer(player);
+        if (perViewerRendering) {
+            return renderer;
+        }
+        return ChatRenderer.viewerUnaware(renderer);
     }
 
     /**
      * Custom ChatRenderer implementation that formats chat messages
      */
-    private class StatusChatRenderer implements ChatRenderer {
+    private class StatusChatRenderer implements ChatRenderer, ChatRenderer.ViewerUnaware {
 
         private final Player player;
-        private final String statusFormat;
+        private final Component statusDisplay;
+        @Nullable
+        private final ColorFormat messageColor;
+        @Nullable
+        private final ColorFormat nameColor;
         private final int deaths;
         private final String country;
         private final String countryCode;
 
         public StatusChatRenderer(@NotNull Player player) {
             this.player = player;
-            this.statusFormat = statusManager.getStatusFormat(player.getUniqueId());
+            this.statusDisplay = statusManager.getStatusDisplay(player.getUniqueId());
             this.deaths = deathTracker.getDeaths(player.getUniqueId());
             this.country = countryManager.getCountry(player.getUniqueId()).orElse("");
             this.countryCode = countryManager.getCountryCode(player.getUniqueId()).orElse("");
+
+            String rawStatus = statusColorsEnabled || nameColorsEnabled ? statusManager.getStatus(player) : null;
+            String statusKey = rawStatus != null ? rawStatus.toUpperCase() : null;
+            this.messageColor = statusColorsEnabled && statusKey != null ? statusColors.get(statusKey) : null;
+            this.nameColor = nameColorsEnabled && statusKey != null ? nameColors.get(statusKey) : null;
         }
 
         @Override
         @NotNull
         public Component render(@NotNull Player source, @NotNull Component sourceDisplayName,
                 @NotNull Component message, @NotNull Audience viewer) {
+            return render(sourceDisplayName, message, viewer instanceof Player viewingPlayer ? viewingPlayer : null);
+        }
+
+        @Override
+        @NotNull
+        public Component render(@NotNull Player source, @NotNull Component sourceDisplayName,
+                @NotNull Component message) {
+            return render(sourceDisplayName, message, null);
+        }
+
+        /**
+         * Render the chat line
+         *
+         * @param viewer the viewing player for relational placeholders, or null when
+         *               rendering once for all viewers
+         */
+        @NotNull
+        private Component render(@NotNull Component sourceDisplayName, @NotNull Component message,
+                @Nullable Player viewer) {
             // Apply clickable URLs to the message
             Component processedMessage = message;
             if (clickableUrls) {
@@ -149,73 +208,41 @@ public class ChatManager {
             }
 
             // Apply status color if enabled and configured for this status
-            if (statusColorsEnabled) {
-                String rawStatus = statusManager.getStatus(player);
-                if (rawStatus != null) {
-                    String color = statusColors.get(rawStatus.toUpperCase());
-                    if (color != null) {
-                        processedMessage = miniMessage.deserialize(color).append(processedMessage);
-                    }
-                }
-            }
-
-            // Build tag resolvers for placeholders
-            TagResolver.Builder resolvers = TagResolver.builder();
-
-            // Status placeholder - parse as MiniMessage
-            if (!statusFormat.isEmpty()) {
-                resolvers.resolver(Placeholder.component("status", miniMessage.deserialize(statusFormat)));
-            } else {
-                resolvers.resolver(Placeholder.component("status", Component.empty()));
+            if (messageColor != null) {
+                processedMessage = messageColor.apply(processedMessage);
             }
 
             // Player name
             Component playerName = sourceDisplayName;
-            if (nameColorsEnabled) {
-                String rawStatus = statusManager.getStatus(player);
-                if (rawStatus != null) {
-                    String color = nameColors.get(rawStatus.toUpperCase());
-                    if (color != null) {
-                        playerName = miniMessage.deserialize(color).append(playerName);
-                    }
-                }
+            if (nameColor != null) {
+                playerName = nameColor.apply(playerName);
             }
-            resolvers.resolver(Placeholder.component("player", playerName));
-
-            // Message
-            resolvers.resolver(Placeholder.component("message", processedMessage));
-
-            // Deaths
-            resolvers.resolver(Placeholder.unparsed("deaths", String.valueOf(deaths)));
-            // Formatted deaths: [☠ N]
-            resolvers.resolver(Placeholder.component("deaths_formatted",
-                    miniMessage.deserialize("<dark_gray>[</dark_gray><red>☠</red> <red>" + deaths
-                            + "</red><dark_gray>]</dark_gray>")));
-
-            // Country info
-            resolvers.resolver(Placeholder.unparsed("country", country));
-            resolvers.resolver(Placeholder.unparsed("countrycode", countryCode));
-
-            // Parse the chat format with placeholders
-            // 1. Parse config placeholders (status, death etc) -> MiniMessage
-            // 2. Parse PAPI placeholders -> Legacy colors
-            // 3. Convert Legacy -> MiniMessage
-            // 4. Deserialize all
-
-            // Note: We need to be careful here.
-            // The chatFormat contains <status>, <player>, etc.
-            // PAPI placeholders are likely in the config string itself, e.g. "<status>
-            // %simplenick% ..."
-
-            // First, let's substitute our internal placeholders using MiniMessage as before
-            // BUT, if we want PAPI to work on the format string, we should do it first?
-            // If PAPI returns a legacy color code &c, MiniMessage won't parse it unless we
-            // convert it.
-
-            String formatWithPapi = de.stylelabor.statusplugin.util.PlaceholderUtil.parse(player, chatFormat);
-            formatWithPapi = de.stylelabor.statusplugin.util.ColorUtil.convertLegacyToMiniMessage(formatWithPapi);
-
-            return miniMessage.deserialize(formatWithPapi, resolvers.build());
+
+            // Fill the slots of the precompiled chat format; values are only built
+            // for slots the format actually uses
+            Component finalMessage = processedMessage;
+            Component finalPlayerName = playerName;
+            Function<String, Component> slots = slot -> switch (slot) {
+                case "status" -> statusDisplay;
+                case "player" -> finalPlayerName;
+                case "message" -> finalMessage;
+                case "deaths" -> Component.text(deaths);
+                // Formatted deaths, e.g. [☠ N] (deaths.format)
+                case "deaths_formatted" -> deathTracker.getFormattedDeaths(deaths);
+                case "country" -> Component.text(country);
+                case "countrycode" -> Component.text(countryCode);
+                default -> Component.empty();
+            };
+
+            // PAPI placeholders in the format are read from the main-thread snapshot;
+            // legacy colors in their results are converted by the template.
+            // Relational placeholders depend on the viewer and are resolved directly
+            UnaryOperator<String> placeholders = viewer != null
+                    ? token -> de.stylelabor.statusplugin.util.PlaceholderUtil.parseRelational(player, viewer,
+                            placeholderSnapshotManager.parse(player, token))
+                    : token -> placeholderSnapshotManager.parse(player, token);
+
+            return chatTemplate.render(slots, placeholders);
         }
     }
 
@@ -224,36 +251,59 @@ public class ChatManager {
      */
     @NotNull
     private Component makeUrlsClickable(@NotNull Component message) {
-        TextReplacementConfig config = TextReplacementConfig.builder()
-                .match(URL_PATTERN)
-                .replacement((result, builder) -> {
-                    String url = result.group(1);
-
-                    // Base component with URL text
-                    Component urlComponent = Component.text(url);
-
-                    // Apply style from config (MiniMessage)
-                    if (!urlStyle.isEmpty()) {
-                        // Apply style by wrapping content
-                        urlComponent = miniMessage.deserialize(urlStyle + url);
-                    } else {
-                        // Default fallback if empty
-                        urlComponent = urlComponent.color(NamedTextColor.AQUA);
-                    }
-
-                    // Add click event
-                    urlComponent = urlComponent.clickEvent(ClickEvent.openUrl(url));
-
-                    // Add hover event if configured
-                    if (urlHover != null && !urlHover.isEmpty()) {
-                        urlComponent = urlComponent.hoverEvent(miniMessage.deserialize(urlHover));
-                    }
-
-                    return urlComponent;
-                })
-                .build();
+        // Plain chat messages are a single text component: scan it directly
+        if (message instanceof TextComponent text && text.children().isEmpty()) {
+            return linkify(text);
+        }
+        if (!UrlScanner.mayContainUrl(PlainTextComponentSerializer.plainText().serialize(message))) {
+            return message;
+        }
+        return message.replaceText(urlReplacement);
+    }
+
+    /**
+     * Split a childless text component around its URLs
+     */
+    @NotNull
+    private Component linkify(@NotNull TextComponent text) {
+        String content = text.content();
+        int start = UrlScanner.indexOfUrl(content, 0);
+        if (start < 0) {
+            return text;
+        }
 
-        return message.replaceText(config);
+        List<Component> parts = new ArrayList<>();
+        int last = 0;
+        while (start >= 0) {
+            int end = UrlScanner.urlEnd(content, start);
+            if (start > last) {
+                parts.add(Component.text(content.substring(last, start)));
+            }
+            parts.add(urlComponent(content.substring(start, end)));
+            last = end;
+            start = UrlScanner.indexOfUrl(content, last);
+        }
+        if (last < content.length()) {
+            parts.add(Component.text(content.substring(last)));
+        }
+        return Component.text("", text.style()).children(parts);
+    }
+
+    /**
+     * Build the clickable component for a URL
+     */
+    @NotNull
+    private Component urlComponent(@NotNull String url) {
+        Component urlComponent = urlTemplate != null
+                ? urlTemplate.render(slot -> Component.text(url), token -> token)
+                // Default fallback if no style is configured
+                : Component.text(url, NamedTextColor.AQUA);
+
+        urlComponent = urlComponent.clickEvent(ClickEvent.openUrl(url));
+        if (urlHover != null) {
+            urlComponent = urlComponent.hoverEvent(urlHover);
+        }
+        return urlComponent;
     }
 
     /**
@@ -2,26 +2,43 @@ package de.stylelabor.statusplugin.manager;
 
 import de.stylelabor.statusplugin.StatusPlugin;
 import de.stylelabor.statusplugin.config.ConfigManager;
+import de.stylelabor.statusplugin.util.CircuitBreaker;
+import de.stylelabor.statusplugin.util.ColorUtil;
+import net.kyori.adventure.text.Component;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
-import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.IOException;
 import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.logging.Level;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Manages country lookup via IP geolocation with async fetching and caching.
+ * Each API is guarded by a circuit breaker, failed IPs are negatively cached
+ * and slow primary lookups are hedged to the fallback API.
  */
 public class CountryManager {
 
@@ -35,12 +52,63 @@ public class CountryManager {
     // Cache: UUID -> CountryData
     private final Map<UUID, CountryData> countryCache = new ConcurrentHashMap<>();
 
+    // Online players per country: UUID -> counted country code ("" if unknown)
+    private final Map<UUID, String> onlineCountries = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> countryOnlineCounts = new ConcurrentHashMap<>();
+    private final AtomicLong countryCountsVersion = new AtomicLong();
+    private volatile TopCountries topCountries = new TopCountries(-1, List.of(), Component.empty(), "");
+
+    // Lookups currently in flight: UUID -> result
+    private final Map<UUID, CompletableFuture<CountryData>> pendingLookups = new ConcurrentHashMap<>();
+
+    // Negative cache: IP -> expiry time for lookups that failed
+    private final Map<String, Long> negativeCache = new ConcurrentHashMap<>();
+
+    private GeoProvider primaryProvider;
+    private GeoProvider fallbackProvider;
+    private long hedgeDelayMillis;
+    private long negativeCacheTtlMillis;
+    private long preLoginWaitMillis;
+
+    // Counters
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong negativeCacheHits = new AtomicLong();
+    private final AtomicLong hedgedRequests = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
     /**
      * Immutable record for country data
      */
     public record CountryData(String country, String countryCode, long timestamp) {
     }
 
+    /**
+     * Number of online players from one country
+     */
+    public record CountryCount(String countryCode, int count) {
+    }
+
+    /**
+     * Memoised "top countries" list for one version of the online counters
+     */
+    private record TopCountries(long version, List<CountryCount> counts, Component component, String format) {
+    }
+
+    /**
+     * Counters for a single geolocation provider
+     */
+    public record ProviderStats(String name, CircuitBreaker.State state, long timesOpened,
+            long requests, long successes, long failures, long shortCircuited) {
+    }
+
+    /**
+     * Counters for country lookups
+     */
+    public record LookupStats(long lookups, long cacheHits, long negativeCacheHits, int negativeCacheSize,
+            long hedgedRequests, long hedgeWins, List<ProviderStats> providers) {
+    }
+
     public CountryManager(@NotNull StatusPlugin plugin, @NotNull ConfigManager configManager) {
         this.plugin = plugin;
         this.configManager = configManager;
@@ -48,9 +116,33 @@ public class CountryManager {
                 .connectTimeout(5, TimeUnit.SECONDS)
                 .readTimeout(5, TimeUnit.SECONDS)
                 .build();
+        loadConfig();
         loadCache();
     }
 
+    /**
+     * Load provider settings (circuit breakers, negative cache, hedging)
+     */
+    private void loadConfig() {
+        var config = configManager.getConfig();
+        int failureThreshold = config.getInt("country.circuit-breaker.failure-threshold", 3);
+        long openDuration = config.getLong("country.circuit-breaker.open-duration", 60) * 1000L;
+        hedgeDelayMillis = config.getLong("country.hedge-delay", 1500);
+        negativeCacheTtlMillis = config.getLong("country.negative-cache-ttl", 300) * 1000L;
+        preLoginWaitMillis = config.getLong("country.prelogin-wait", 1000);
+
+        // Keep the breakers (and their state) across reloads unless their settings changed,
+        // so a reload does not close an open breaker of a failing provider
+        if (primaryProvider == null || !primaryProvider.breaker.hasSettings(failureThreshold, openDuration)) {
+            primaryProvider = new GeoProvider("Primary", PRIMARY_API, CountryManager::parsePrimary,
+                    new CircuitBreaker(failureThreshold, openDuration));
+        }
+        if (fallbackProvider == null || !fallbackProvider.breaker.hasSettings(failureThreshold, openDuration)) {
+            fallbackProvider = new GeoProvider("Fallback", FALLBACK_API, CountryManager::parseFallback,
+                    new CircuitBreaker(failureThreshold, openDuration));
+        }
+    }
+
     /**
      * Check if country lookup is enabled
      */
@@ -151,106 +243,425 @@ public class CountryManager {
         return getCountryCode(player.getUniqueId());
     }
 
+    /**
+     * Count a player towards their country's online total (called on join)
+     */
+    public synchronized void trackJoin(@NotNull Player player) {
+        onlineCountries.putIfAbsent(player.getUniqueId(), "");
+        getCountryCode(player).ifPresent(code -> updateOnlineCountry(player.getUniqueId(), code));
+    }
+
+    /**
+     * Remove a player from their country's online total (called on quit)
+     */
+    public synchronized void trackQuit(@NotNull UUID uuid) {
+        String previous = onlineCountries.remove(uuid);
+        if (previous != null && !previous.isEmpty()) {
+            adjustOnlineCount(previous, -1);
+        }
+    }
+
+    /**
+     * Move an online player to a (new) country in the online counters
+     */
+    private synchronized void updateOnlineCountry(@NotNull UUID uuid, @NotNull String countryCode) {
+        String code = countryCode.toUpperCase();
+        String previous = onlineCountries.get(uuid);
+        if (previous == null || previous.equals(code)) {
+            return; // Offline, or already counted
+        }
+
+        onlineCountries.put(uuid, code);
+        if (!previous.isEmpty()) {
+            adjustOnlineCount(previous, -1);
+        }
+        if (!code.isEmpty()) {
+            adjustOnlineCount(code, 1);
+        }
+    }
+
+    private void adjustOnlineCount(@NotNull String code, int delta) {
+        AtomicInteger count = countryOnlineCounts.computeIfAbsent(code, key -> new AtomicInteger());
+        if (count.addAndGet(delta) <= 0) {
+            countryOnlineCounts.remove(code);
+        }
+        countryCountsVersion.incrementAndGet();
+    }
+
+    /**
+     * Get the number of online players from a country
+     */
+    public int getOnlineCount(@NotNull String countryCode) {
+        AtomicInteger count = countryOnlineCounts.get(countryCode.toUpperCase());
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Get the countries with the most online players, most first
+     */
+    @NotNull
+    public List<CountryCount> getTopCountries() {
+        return getTopCountriesSnapshot().counts();
+    }
+
+    /**
+     * Get the top countries formatted with country.top-countries.format
+     */
+    @NotNull
+    public Component getTopCountriesComponent() {
+        return getTopCountriesSnapshot().component();
+    }
+
+    /**
+     * Get the top countries as a MiniMessage string (for PlaceholderAPI)
+     */
+    @NotNull
+    public String getTopCountriesFormat() {
+        return getTopCountriesSnapshot().format();
+    }
+
+    /**
+     * Rebuild the top countries list only when the online counters or the
+     * configuration changed
+     */
+    @NotNull
+    private TopCountries getTopCountriesSnapshot() {
+        TopCountries current = topCountries;
+        long version = countryCountsVersion.get();
+        if (current.version() == version) {
+            return current;
+        }
+
+        var config = configManager.getConfig();
+        int limit = config.getInt("country.top-countries.limit", 3);
+        String entryFormat = ColorUtil.convertLegacyToMiniMessage(
+                config.getString("country.top-countries.format", "<white><code></white> <gray>(<count>)</gray>"));
+        String separator = ColorUtil.convertLegacyToMiniMessage(
+                config.getString("country.top-countries.separator", "<dark_gray>, </dark_gray>"));
+
+        List<CountryCount> counts = new ArrayList<>();
+        for (Map.Entry<String, AtomicInteger> entry : countryOnlineCounts.entrySet()) {
+            int count = entry.getValue().get();
+            if (count > 0) {
+                counts.add(new CountryCount(entry.getKey(), count));
+            }
+        }
+        counts.sort(Comparator.comparingInt(CountryCount::count).reversed()
+                .thenComparing(CountryCount::countryCode));
+        if (limit > 0 && counts.size() > limit) {
+            counts = counts.subList(0, limit);
+        }
+
+        StringBuilder format = new StringBuilder();
+        for (CountryCount count : counts) {
+            if (!format.isEmpty()) {
+                format.append(separator);
+            }
+            format.append(entryFormat
+                    .replace("<code>", count.countryCode())
+                    .replace("<count>", String.valueOf(count.count())));
+        }
+
+        String formatted = format.toString();
+        TopCountries updated = new TopCountries(version, List.copyOf(counts),
+                plugin.getMiniMessage().deserialize(formatted), formatted);
+        topCountries = updated;
+        return updated;
+    }
+
     /**
      * Fetch country data for a player asynchronously
      */
     public CompletableFuture<CountryData> fetchCountry(@NotNull Player player) {
+        InetAddress address = player.getAddress() != null ? player.getAddress().getAddress() : null;
+        return fetchCountry(player.getUniqueId(), player.getName(), address);
+    }
+
+    /**
+     * Start a lookup during pre-login and wait a bounded time for it, so the
+     * country is usually known by the time the player joins.
+     * Must not be called from the main thread.
+     */
+    public void prefetchCountry(@NotNull UUID uuid, @NotNull String name, @Nullable InetAddress address) {
         if (!isEnabled()) {
-            return CompletableFuture.completedFuture(null);
+            return;
+        }
+
+        CompletableFuture<CountryData> future = fetchCountry(uuid, name, address);
+        if (future.isDone() || preLoginWaitMillis <= 0) {
+            return;
         }
 
-        UUID uuid = player.getUniqueId();
+        try {
+            future.get(preLoginWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            plugin.debug("Country lookup for " + name + " still running at login, finishing after join");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            plugin.debug("Country lookup for " + name + " failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fetch country data for a player asynchronously.
+     * Concurrent requests for the same player share one lookup.
+     */
+    public CompletableFuture<CountryData> fetchCountry(@NotNull UUID uuid, @NotNull String name,
+            @Nullable InetAddress address) {
+        if (!isEnabled()) {
+            return CompletableFuture.completedFuture(null);
+        }
 
         // Check cache first
         CountryData cached = countryCache.get(uuid);
         if (cached != null) {
             long cacheDuration = configManager.getConfig().getLong("country.cache-duration", 24) * 3600000L;
             if (cacheDuration == 0 || System.currentTimeMillis() - cached.timestamp() < cacheDuration) {
+                cacheHits.incrementAndGet();
                 return CompletableFuture.completedFuture(cached);
             }
         }
 
-        // Get player's IP
-        InetAddress address = player.getAddress() != null ? player.getAddress().getAddress() : null;
-        if (address == null || address.isLoopbackAddress() || address.isSiteLocalAddress()) {
-            plugin.debug("Cannot lookup country for " + player.getName() + " - local/loopback address");
+        // Join a lookup that is already running (e.g. started at pre-login)
+        CompletableFuture<CountryData> pending = pendingLookups.get(uuid);
+        if (pending != null) {
+            return pending;
+        }
+
+        // Check player's IP
+        if (address == null || address.isLoopbackAddress() || address.isSiteLocalAddress()
+                || address.isLinkLocalAddress() || address.isAnyLocalAddress()) {
+            plugin.debug("Cannot lookup country for " + name + " - local/loopback address");
             return CompletableFuture.completedFuture(null);
         }
 
         String ip = address.getHostAddress();
 
-        return CompletableFuture.supplyAsync(() -> {
-            CountryData data = fetchFromPrimaryApi(ip);
-            if (data == null) {
-                data = fetchFromFallbackApi(ip);
+        // Skip IPs that recently failed to resolve
+        Long negativeExpiry = negativeCache.get(ip);
+        if (negativeExpiry != null) {
+            if (System.currentTimeMillis() < negativeExpiry) {
+                negativeCacheHits.incrementAndGet();
+                plugin.debug("Skipping country lookup for " + name + " - recently failed");
+                return CompletableFuture.completedFuture(null);
             }
+            negativeCache.remove(ip, negativeExpiry);
+        }
+
+        CompletableFuture<CountryData> future = new CompletableFuture<>();
+        CompletableFuture<CountryData> existing = pendingLookups.putIfAbsent(uuid, future);
+        if (existing != null) {
+            return existing;
+        }
 
+        lookup(ip).thenApply(data -> {
             if (data != null) {
                 countryCache.put(uuid, data);
-                plugin.debug("Fetched country for " + player.getName() + ": " + data.country());
+                updateOnlineCountry(uuid, data.countryCode());
+                plugin.debug("Fetched country for " + name + ": " + data.country());
             }
-
             return data;
+        }).whenComplete((data, error) -> {
+            pendingLookups.remove(uuid, future);
+            future.complete(data);
         });
+        return future;
     }
 
     /**
-     * Fetch from primary API (ip-api.com)
+     * Look up an IP using the primary provider, hedging to the fallback provider
+     * when the primary is unavailable, fails, or is slower than the hedge delay
      */
-    private CountryData fetchFromPrimaryApi(@NotNull String ip) {
-        String url = String.format(PRIMARY_API, ip);
+    @NotNull
+    private CompletableFuture<CountryData> lookup(@NotNull String ip) {
+        lookups.incrementAndGet();
 
-        Request request = new Request.Builder()
-                .url(url)
-                .get()
-                .build();
+        CompletableFuture<CountryData> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(2);
+        AtomicBoolean fallbackStarted = new AtomicBoolean(false);
+        AtomicBoolean dispatched = new AtomicBoolean(false);
 
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (response.isSuccessful() && response.body() != null) {
-                String body = response.body().string();
-                JSONObject json = new JSONObject(body);
+        Consumer<Boolean> startFallback = hedged -> {
+            if (!fallbackStarted.compareAndSet(false, true)) {
+                return;
+            }
+            if (hedged) {
+                hedgedRequests.incrementAndGet();
+            }
+            fallbackProvider.query(ip, dispatched).thenAccept(data -> {
+                if (data != null) {
+                    if (result.complete(data) && hedged) {
+                        hedgeWins.incrementAndGet();
+                    }
+                } else if (outstanding.decrementAndGet() == 0) {
+                    result.complete(null);
+                }
+            });
+        };
 
-                if ("success".equals(json.optString("status"))) {
-                    String country = json.optString("country", "");
-                    String countryCode = json.optString("countryCode", "");
-                    return new CountryData(country, countryCode, System.currentTimeMillis());
+        CompletableFuture<CountryData> primary = primaryProvider.query(ip, dispatched);
+        primary.thenAccept(data -> {
+            if (data != null) {
+                result.complete(data);
+            } else {
+                if (outstanding.decrementAndGet() == 0) {
+                    result.complete(null);
                 }
+                startFallback.accept(false);
             }
-        } catch (IOException e) {
-            plugin.debug("Primary API failed for " + ip + ": " + e.getMessage());
+        });
+
+        // Hedge: ask the fallback too if the primary is taking too long
+        if (!primary.isDone() && hedgeDelayMillis > 0) {
+            CompletableFuture.delayedExecutor(hedgeDelayMillis, TimeUnit.MILLISECONDS).execute(() -> {
+                if (!result.isDone()) {
+                    startFallback.accept(true);
+                }
+            });
         }
 
+        return result.thenApply(data -> {
+            // Remember IPs that no provider could resolve, unless every provider was
+            // short-circuited (then the IP itself is not to blame)
+            if (data == null && dispatched.get() && negativeCacheTtlMillis > 0) {
+                long now = System.currentTimeMillis();
+                negativeCache.values().removeIf(expiry -> expiry <= now);
+                negativeCache.put(ip, now + negativeCacheTtlMillis);
+            }
+            return data;
+        });
+    }
+
+    /**
+     * Parse a response from the primary API (ip-api.com)
+     */
+    @Nullable
+    private static CountryData parsePrimary(@NotNull JSONObject json) {
+        if ("success".equals(json.optString("status"))) {
+            String country = json.optString("country", "");
+            String countryCode = json.optString("countryCode", "");
+            return new CountryData(country, countryCode, System.currentTimeMillis());
+        }
         return null;
     }
 
     /**
-     * Fetch from fallback API (iplocation.net)
+     * Parse a response from the fallback API (iplocation.net)
      */
-    private CountryData fetchFromFallbackApi(@NotNull String ip) {
-        String url = String.format(FALLBACK_API, ip);
+    @Nullable
+    private static CountryData parseFallback(@NotNull JSONObject json) {
+        String country = json.optString("country_name", "");
+        String countryCode = json.optString("country_code2", "");
 
-        Request request = new Request.Builder()
-                .url(url)
-                .get()
-                .build();
+        if (!country.isEmpty()) {
+            return new CountryData(country, countryCode, System.currentTimeMillis());
+        }
+        return null;
+    }
 
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (response.isSuccessful() && response.body() != null) {
-                String body = response.body().string();
-                JSONObject json = new JSONObject(body);
+    /**
+     * A geolocation API endpoint guarded by its own circuit breaker
+     */
+    private final class GeoProvider {
+
+        private final String name;
+        private final String urlFormat;
+        private final Function<JSONObject, CountryData> parser;
+        private final CircuitBreaker breaker;
+
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong successes = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong shortCircuited = new AtomicLong();
+
+        private GeoProvider(@NotNull String name, @NotNull String urlFormat,
+                @NotNull Function<JSONObject, CountryData> parser, @NotNull CircuitBreaker breaker) {
+            this.name = name;
+            this.urlFormat = urlFormat;
+            this.parser = parser;
+            this.breaker = breaker;
+        }
+
+        /**
+         * Query this provider without blocking the calling thread.
+         * The returned future always completes normally, with null on failure.
+         */
+        @NotNull
+        private CompletableFuture<CountryData> query(@NotNull String ip, @NotNull AtomicBoolean dispatched) {
+            if (!breaker.tryAcquire()) {
+                shortCircuited.incrementAndGet();
+                plugin.debug(name + " API circuit open, skipping lookup for " + ip);
+                return CompletableFuture.completedFuture(null);
+            }
 
-                String country = json.optString("country_name", "");
-                String countryCode = json.optString("country_code2", "");
+            dispatched.set(true);
+            requests.incrementAndGet();
 
-                if (!country.isEmpty()) {
-                    return new CountryData(country, countryCode, System.currentTimeMillis());
+            Request request = new Request.Builder()
+                    .url(String.format(urlFormat, ip))
+                    .get()
+                    .build();
+
+            CompletableFuture<CountryData> future = new CompletableFuture<>();
+            httpClient.newCall(request).enqueue(new Callback() {
+                @Override
+                public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                    fail(ip, e.getMessage());
+                    future.complete(null);
                 }
-            }
-        } catch (IOException e) {
-            plugin.debug("Fallback API failed for " + ip + ": " + e.getMessage());
+
+                @Override
+                public void onResponse(@NotNull Call call, @NotNull Response response) {
+                    try (response) {
+                        if (!response.isSuccessful() || response.body() == null) {
+                            fail(ip, "HTTP " + response.code());
+                            future.complete(null);
+                            return;
+                        }
+
+                        CountryData data = parser.apply(new JSONObject(response.body().string()));
+                        successes.incrementAndGet();
+                        breaker.recordSuccess();
+                        future.complete(data);
+                    } catch (IOException | JSONException e) {
+                        fail(ip, e.getMessage());
+                        future.complete(null);
+                    }
+                }
+            });
+            return future;
         }
 
-        return null;
+        private void fail(@NotNull String ip, @Nullable String reason) {
+            failures.incrementAndGet();
+            breaker.recordFailure();
+            plugin.debug(name + " API failed for " + ip + ": " + reason);
+        }
+
+        @NotNull
+        private ProviderStats stats() {
+            return new ProviderStats(name, breaker.getState(), breaker.getTimesOpened(),
+                    requests.get(), successes.get(), failures.get(), shortCircuited.get());
+        }
+    }
+
+    /**
+     * Get lookup counters for monitoring
+     */
+    @NotNull
+    public LookupStats getStats() {
+        return new LookupStats(lookups.get(), cacheHits.get(), negativeCacheHits.get(), negativeCache.size(),
+                hedgedRequests.get(), hedgeWins.get(), List.of(primaryProvider.stats(), fallbackProvider.stats()));
+    }
+
+    /**
+     * Shutdown the HTTP client
+     */
+    public void shutdown() {
+        httpClient.dispatcher().cancelAll();
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
     }
 
     /**
@@ -258,6 +669,10 @@ public class CountryManager {
      */
     public void reload() {
         countryCache.clear();
+        negativeCache.clear();
+        loadConfig();
         loadCache();
+        // The top countries format, limit or separator may have changed
+        countryCountsVersion.incrementAndGet();
     }
 }
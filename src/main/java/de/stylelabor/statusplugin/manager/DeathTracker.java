@@ -2,24 +2,35 @@ package de.stylelabor.statusplugin.manager;
 
 import de.stylelabor.statusplugin.StatusPlugin;
 import de.stylelabor.statusplugin.config.ConfigManager;
+import de.stylelabor.statusplugin.util.ComponentTemplate;
+import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
 import org.bukkit.Statistic;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Tracks player deaths with batched saves and vanilla statistic sync.
  */
 public class DeathTracker {
 
+    private static final String DEFAULT_FORMAT =
+            "<dark_gray>[</dark_gray><red>☠</red> <red><deaths></red><dark_gray>]</dark_gray>";
+
+    // Rendered formats for recent death counts, indexed by count & (size - 1)
+    private static final int FORMAT_CACHE_SIZE = 64;
+
     private final StatusPlugin plugin;
     private final ConfigManager configManager;
+    private final MainThreadQueue mainThreadQueue;
 
     // Cache of player deaths (UUID -> death count)
     private final Map<UUID, Integer> playerDeaths = new ConcurrentHashMap<>();
@@ -36,9 +47,18 @@ public class DeathTracker {
     private boolean syncWithVanilla;
     private int saveDelay;
 
-    public DeathTracker(@NotNull StatusPlugin plugin, @NotNull ConfigManager configManager) {
+    private String deathsFormat;
+    private ComponentTemplate deathsTemplate;
+    private volatile AtomicReferenceArray<FormattedDeaths> formattedCache;
+
+    private record FormattedDeaths(int deaths, Component component) {
+    }
+
+    public DeathTracker(@NotNull StatusPlugin plugin, @NotNull ConfigManager configManager,
+            @NotNull MainThreadQueue mainThreadQueue) {
         this.plugin = plugin;
         this.configManager = configManager;
+        this.mainThreadQueue = mainThreadQueue;
         loadConfig();
         loadData();
         startSaveTask();
@@ -51,6 +71,11 @@ public class DeathTracker {
         var config = configManager.getConfig();
         syncWithVanilla = config.getBoolean("deaths.sync-with-vanilla", true);
         saveDelay = config.getInt("deaths.save-delay", 30);
+
+        deathsFormat = de.stylelabor.statusplugin.util.ColorUtil.convertLegacyToMiniMessage(
+                config.getString("deaths.format", DEFAULT_FORMAT));
+        deathsTemplate = ComponentTemplate.compile(deathsFormat, List.of("deaths"));
+        formattedCache = new AtomicReferenceArray<>(FORMAT_CACHE_SIZE);
     }
 
     /**
@@ -138,6 +163,30 @@ public class DeathTracker {
         return getDeaths(player.getUniqueId());
     }
 
+    /**
+     * Get a death count rendered with the configured format ([☠ N] by default)
+     */
+    @NotNull
+    public Component getFormattedDeaths(int deaths) {
+        AtomicReferenceArray<FormattedDeaths> cache = formattedCache;
+        int slot = deaths & (FORMAT_CACHE_SIZE - 1);
+        FormattedDeaths cached = cache.get(slot);
+        if (cached != null && cached.deaths() == deaths) {
+            return cached.component();
+        }
+        Component component = deathsTemplate.render(key -> Component.text(deaths), token -> token);
+        cache.set(slot, new FormattedDeaths(deaths, component));
+        return component;
+    }
+
+    /**
+     * Get a death count in the configured format as a MiniMessage string
+     */
+    @NotNull
+    public String getFormattedDeathsString(int deaths) {
+        return deathsFormat.replace("<deaths>", String.valueOf(deaths));
+    }
+
     /**
      * Set a player's death count
      */
@@ -149,11 +198,8 @@ public class DeathTracker {
         if (syncWithVanilla) {
             Player player = Bukkit.getPlayer(uuid);
             if (player != null) {
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    if (player.isOnline()) {
-                        player.setStatistic(Statistic.DEATHS, count);
-                    }
-                });
+                mainThreadQueue.submit(MainThreadQueue.Priority.NORMAL, player,
+                        () -> player.setStatistic(Statistic.DEATHS, count));
             }
         }
     }
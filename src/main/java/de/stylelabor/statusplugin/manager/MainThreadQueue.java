@@ -0,0 +1,225 @@
+package de.stylelabor.statusplugin.manager;
+
+import de.stylelabor.statusplugin.StatusPlugin;
+import de.stylelabor.statusplugin.config.ConfigManager;
+import de.stylelabor.statusplugin.util.CancellationToken;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Runs the plugin's main-thread work (scoreboard teams, tab list packets,
+ * statistics) within a time budget per tick.
+ *
+ * Tasks are queued from any thread and drained once per tick in priority
+ * order, FIFO within a priority. When the budget is used up the rest waits
+ * for the next tick.
+ *
+ * Each online player has a session cancellation token that is cancelled when
+ * they quit. Queued tasks of the player are removed at that point, and async
+ * work (tab renders, geolocation callbacks) checks the token to stop early.
+ */
+public class MainThreadQueue {
+
+    /**
+     * Task priority; higher priorities are drained first
+     */
+    public enum Priority {
+        /** Scoreboard team changes (sorting, nametags) */
+        HIGH,
+        /** Player list names and other per-player state */
+        NORMAL,
+        /** Header/footer packets, which the next refresh supersedes anyway */
+        LOW
+    }
+
+    private record Task(@NotNull Priority priority, long sequence, @Nullable CancellationToken session,
+            @NotNull Runnable action, long queuedAt) implements Comparable<Task> {
+
+        @Override
+        public int compareTo(@NotNull Task other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * Queue statistics
+     *
+     * @param depth                tasks waiting
+     * @param executed             tasks run
+     * @param dropped              tasks dropped because their player quit
+     * @param sessions             players with a session token
+     * @param averageLatencyMicros average time from queueing to running
+     * @param maxLatencyMicros     longest time from queueing to running
+     * @param lastDrainMicros      time spent in the last tick's drain
+     */
+    public record Stats(int depth, long executed, long dropped, int sessions, long averageLatencyMicros,
+            long maxLatencyMicros, long lastDrainMicros) {
+    }
+
+    private final StatusPlugin plugin;
+    private final ConfigManager configManager;
+
+    private final PriorityBlockingQueue<Task> queue = new PriorityBlockingQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Session token per online player
+    private final Map<UUID, CancellationToken> sessions = new ConcurrentHashMap<>();
+
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private volatile long lastDrainNanos = 0;
+
+    private BukkitTask drainTask;
+    private long budgetNanos;
+
+    public MainThreadQueue(@NotNull StatusPlugin plugin, @NotNull ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        loadConfig();
+        drainTask = Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 1L, 1L);
+    }
+
+    /**
+     * Load configuration
+     */
+    private void loadConfig() {
+        double budgetMillis = configManager.getConfig().getDouble("general.main-thread-budget", 1.0);
+        budgetNanos = (long) (Math.max(0.05, budgetMillis) * 1_000_000);
+    }
+
+    /**
+     * Queue a task that does not belong to a player
+     */
+    public void submit(@NotNull Priority priority, @NotNull Runnable action) {
+        submit(priority, null, action);
+    }
+
+    /**
+     * Queue a task; it is dropped if the owner quits before it runs
+     */
+    public void submit(@NotNull Priority priority, @Nullable Player owner, @NotNull Runnable action) {
+        CancellationToken session = owner != null ? sessionToken(owner) : null;
+        if (session != null && session.isCancelled()) {
+            dropped.incrementAndGet();
+            return;
+        }
+        queue.add(new Task(priority, sequence.incrementAndGet(), session, action, System.nanoTime()));
+    }
+
+    /**
+     * Start a new session for a joining player
+     */
+    public void openSession(@NotNull Player player) {
+        CancellationToken previous = sessions.put(player.getUniqueId(), new CancellationToken());
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    /**
+     * Get the session token of a player; cancelled if the player is offline
+     */
+    @NotNull
+    public CancellationToken sessionToken(@NotNull Player player) {
+        if (!player.isOnline()) {
+            return CancellationToken.CANCELLED;
+        }
+        // Players online before the plugin started have no session yet
+        return sessions.computeIfAbsent(player.getUniqueId(), uuid -> new CancellationToken());
+    }
+
+    /**
+     * Cancel a player's session (called on quit) and remove their queued tasks
+     */
+    public void cancelSession(@NotNull UUID uuid) {
+        CancellationToken session = sessions.get(uuid);
+        if (session == null) {
+            return;
+        }
+        session.cancel();
+
+        int before = queue.size();
+        queue.removeIf(task -> task.session() == session);
+        dropped.addAndGet(Math.max(0, before - queue.size()));
+
+        // Keep the cancelled token for the rest of the quit event, so work
+        // requested by other quit handlers is dropped too
+        submit(Priority.LOW, () -> sessions.remove(uuid, session));
+    }
+
+    /**
+     * Run queued tasks until the budget for this tick is used up. At least
+     * one task runs per tick, so the queue always makes progress.
+     */
+    private void drain() {
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        long now = start;
+        Task task;
+        while ((task = queue.poll()) != null) {
+            if (task.session() != null && task.session().isCancelled()) {
+                dropped.incrementAndGet();
+                continue;
+            }
+
+            long latency = now - task.queuedAt();
+            totalLatencyNanos.addAndGet(latency);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+            executed.incrementAndGet();
+            try {
+                task.action().run();
+            } catch (RuntimeException e) {
+                plugin.log(Level.WARNING, "Main thread task failed: " + e.getMessage());
+            }
+
+            now = System.nanoTime();
+            if (now >= deadline) {
+                break;
+            }
+        }
+        lastDrainNanos = now - start;
+    }
+
+    /**
+     * Get the current statistics
+     */
+    @NotNull
+    public Stats getStats() {
+        long count = executed.get();
+        return new Stats(queue.size(), count, dropped.get(), sessions.size(),
+                count == 0 ? 0 : totalLatencyNanos.get() / count / 1000,
+                maxLatencyNanos.get() / 1000, lastDrainNanos / 1000);
+    }
+
+    /**
+     * Reload configuration
+     */
+    public void reload() {
+        loadConfig();
+    }
+
+    /**
+     * Stop draining; queued tasks are discarded
+     */
+    public void shutdown() {
+        if (drainTask != null) {
+            drainTask.cancel();
+            drainTask = null;
+        }
+        queue.clear();
+        sessions.clear();
+    }
+}
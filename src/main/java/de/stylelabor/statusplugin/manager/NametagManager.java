@@ -3,7 +3,6 @@ package de.stylelabor.statusplugin.manager;
 import de.stylelabor.statusplugin.StatusPlugin;
 import de.stylelabor.statusplugin.config.ConfigManager;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.scoreboard.Scoreboard;
@@ -18,11 +17,11 @@ import java.util.*;
 public class NametagManager {
 
     private static final String TEAM_PREFIX = "sp_";
-    private static final LegacyComponentSerializer LEGACY_SERIALIZER = LegacyComponentSerializer.legacySection();
 
     private final StatusPlugin plugin;
     private final ConfigManager configManager;
     private final StatusManager statusManager;
+    private final MainThreadQueue mainThreadQueue;
     private final Scoreboard scoreboard;
 
     private boolean enabled;
@@ -34,10 +33,12 @@ public class NametagManager {
 
     public NametagManager(@NotNull StatusPlugin plugin,
             @NotNull ConfigManager configManager,
-            @NotNull StatusManager statusManager) {
+            @NotNull StatusManager statusManager,
+            @NotNull MainThreadQueue mainThreadQueue) {
         this.plugin = plugin;
         this.configManager = configManager;
         this.statusManager = statusManager;
+        this.mainThreadQueue = mainThreadQueue;
         this.scoreboard = Objects.requireNonNull(Bukkit.getScoreboardManager()).getMainScoreboard();
         loadConfig();
     }
@@ -74,12 +75,16 @@ public class NametagManager {
     }
 
     /**
-     * Update a player's nametag
+     * Update a player's nametag (queued on the main thread)
      */
     public void updatePlayer(@NotNull Player player) {
         if (!enabled)
             return;
 
+        mainThreadQueue.submit(MainThreadQueue.Priority.HIGH, player, () -> applyNametag(player));
+    }
+
+    private void applyNametag(@NotNull Player player) {
         String status = statusManager.getStatus(player);
         int priority = statusManager.getStatusPriority(status != null ? status : "");
 
@@ -0,0 +1,251 @@
+package de.stylelabor.statusplugin.manager;
+
+import de.stylelabor.statusplugin.StatusPlugin;
+import de.stylelabor.statusplugin.config.ConfigManager;
+import de.stylelabor.statusplugin.util.PlaceholderUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves PlaceholderAPI tokens on the main thread for async renderers.
+ *
+ * Many expansions are not thread-safe, so the tab list task and the async
+ * chat thread read values from an immutable per-player snapshot instead of
+ * calling PlaceholderAPI themselves. The snapshot is rebuilt in one main
+ * thread pass per cycle for every token the renderers use.
+ *
+ * Managers register the tokens of their formats when they compile them. A
+ * token that is not in a player's snapshot yet is shown raw off the main
+ * thread and resolved from the next cycle on; PlaceholderAPI is never
+ * called from another thread while snapshots are enabled.
+ */
+public class PlaceholderSnapshotManager {
+
+    // Upper bound for tokens learned while rendering (registered tokens are not limited)
+    private static final int MAX_LEARNED_TOKENS = 256;
+
+    private final StatusPlugin plugin;
+    private final ConfigManager configManager;
+
+    // Guards registeredTokens, learnedTokens and rebuilding tokens, which
+    // happens from the main thread, the async chat thread and tab renderers
+    private final Object tokenLock = new Object();
+    // Tokens of compiled formats by source (e.g. "chat"), e.g. "%player_ping%"
+    private final Map<String, Set<String>> registeredTokens = new HashMap<>();
+    // Tokens seen while rendering that no format registered
+    private final Set<String> learnedTokens = new HashSet<>();
+    // Union of both, resolved per cycle; read without the lock
+    private volatile Set<String> tokens = Set.of();
+
+    // Player -> immutable token -> value map of the last cycle
+    private final Map<UUID, Map<String, String>> snapshots = new ConcurrentHashMap<>();
+
+    private BukkitTask refreshTask;
+    private volatile boolean enabled = false;
+    private volatile long lastCycleMicros = 0;
+
+    // Only every n-th cycle runs while the server is lagging (see setStretch)
+    private volatile int stretch = 1;
+    private int skippedCycles = 0;
+
+    public PlaceholderSnapshotManager(@NotNull StatusPlugin plugin, @NotNull ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        start();
+    }
+
+    /**
+     * Start the snapshot task if PlaceholderAPI is in use
+     */
+    private void start() {
+        var config = configManager.getConfig();
+        long interval = config.getLong("integrations.placeholderapi.snapshot.interval", 20);
+        enabled = PlaceholderUtil.isEnabled()
+                && config.getBoolean("integrations.placeholderapi.snapshot.enabled", true)
+                && interval > 0;
+        if (!enabled)
+            return;
+
+        refreshTask = Bukkit.getScheduler().runTaskTimer(plugin, this::refreshAll, interval, interval);
+    }
+
+    /**
+     * Rebuild the snapshots of all online players (main thread)
+     */
+    private void refreshAll() {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        if (++skippedCycles < stretch) {
+            return;
+        }
+        skippedCycles = 0;
+
+        long start = System.nanoTime();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            refreshPlayer(player);
+        }
+        lastCycleMicros = (System.nanoTime() - start) / 1000;
+    }
+
+    /**
+     * Rebuild the snapshot of one player (main thread)
+     */
+    public void refreshPlayer(@NotNull Player player) {
+        Set<String> current = tokens;
+        if (!enabled || current.isEmpty()) {
+            return;
+        }
+        Map<String, String> values = new HashMap<>();
+        for (String token : current) {
+            values.put(token, PlaceholderUtil.parse(player, token));
+        }
+        snapshots.put(player.getUniqueId(), Map.copyOf(values));
+    }
+
+    /**
+     * Register the tokens of a source's formats, replacing its previous ones.
+     * New tokens are resolved for all players on the next tick.
+     *
+     * @param source the registering component, e.g. "chat"
+     */
+    public void registerTokens(@NotNull String source, @NotNull Collection<String> sourceTokens) {
+        boolean added;
+        synchronized (tokenLock) {
+            Set<String> previous = tokens;
+            registeredTokens.put(source, Set.copyOf(sourceTokens));
+            rebuildTokens();
+            added = !previous.containsAll(tokens);
+        }
+        if (enabled && added) {
+            Bukkit.getScheduler().runTask(plugin, this::refreshAll);
+        }
+    }
+
+    /**
+     * Add a token seen while rendering to the snapshot
+     */
+    private void learnToken(@NotNull String token) {
+        synchronized (tokenLock) {
+            if (tokens.contains(token) || learnedTokens.size() >= MAX_LEARNED_TOKENS || !learnedTokens.add(token)) {
+                return;
+            }
+            rebuildTokens();
+        }
+        plugin.debug("Added PlaceholderAPI token to snapshot: " + token);
+    }
+
+    /**
+     * Rebuild the union of registered and learned tokens (holding tokenLock)
+     */
+    private void rebuildTokens() {
+        Set<String> all = new HashSet<>(learnedTokens);
+        for (Set<String> sourceTokens : registeredTokens.values()) {
+            all.addAll(sourceTokens);
+        }
+        tokens = Set.copyOf(all);
+    }
+
+    /**
+     * Replace PlaceholderAPI tokens in text with the player's snapshot values.
+     * A token that is not in the snapshot yet is resolved directly on the main
+     * thread; on other threads it is left raw and resolved from the next cycle
+     * on.
+     */
+    @NotNull
+    public String parse(@NotNull Player player, @NotNull String text) {
+        if (!enabled || text.indexOf('%') == -1) {
+            return PlaceholderUtil.parse(player, text);
+        }
+
+        Map<String, String> snapshot = snapshots.getOrDefault(player.getUniqueId(), Map.of());
+        boolean mainThread = Bukkit.isPrimaryThread();
+        return PlaceholderUtil.replaceTokens(text, token -> {
+            String value = snapshot.get(token);
+            if (value != null) {
+                return value;
+            }
+            if (!tokens.contains(token)) {
+                learnToken(token);
+            }
+            return mainThread ? PlaceholderUtil.parse(player, token) : token;
+        });
+    }
+
+    /**
+     * Stretch the refresh period while the server is lagging; with a stretch
+     * of n only every n-th cycle runs (1 = normal)
+     */
+    public void setStretch(int stretch) {
+        this.stretch = Math.max(1, stretch);
+    }
+
+    /**
+     * Get the current stretch of the refresh period
+     */
+    public int getStretch() {
+        return stretch;
+    }
+
+    /**
+     * Drop a player's snapshot (called on quit)
+     */
+    public void invalidate(@NotNull UUID uuid) {
+        snapshots.remove(uuid);
+    }
+
+    /**
+     * Get the number of tokens resolved per cycle
+     */
+    public int getTokenCount() {
+        return tokens.size();
+    }
+
+    /**
+     * Get the duration of the last full snapshot cycle in microseconds
+     */
+    public long getLastCycleMicros() {
+        return lastCycleMicros;
+    }
+
+    /**
+     * Check if renderers read from snapshots
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reload configuration. Registered tokens are replaced by their sources
+     * when they reload; snapshots are kept so renders in between still show
+     * the last known values.
+     */
+    public void reload() {
+        shutdown();
+        synchronized (tokenLock) {
+            learnedTokens.clear();
+            rebuildTokens();
+        }
+        start();
+    }
+
+    /**
+     * Stop the snapshot task
+     */
+    public void shutdown() {
+        if (refreshTask != null) {
+            refreshTask.cancel();
+            refreshTask = null;
+        }
+    }
+}
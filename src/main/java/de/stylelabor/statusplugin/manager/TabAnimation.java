@@ -0,0 +1,126 @@
+package de.stylelabor.statusplugin.manager;
+
+import de.stylelabor.statusplugin.util.ColorUtil;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * An animated tab list value (<animation:name>) with all frames rendered
+ * ahead of time.
+ *
+ * Frames are parsed once when the configuration is loaded, so showing a
+ * frame is an array lookup by server tick. Frames are static MiniMessage
+ * and cannot contain placeholders.
+ */
+public final class TabAnimation {
+
+    private static final MiniMessage MINI_MESSAGE = MiniMessage.miniMessage();
+
+    private final Component[] frames;
+    private final int interval;
+
+    /**
+     * @param frames   the rendered frames (at least one)
+     * @param interval ticks each frame is shown
+     */
+    private TabAnimation(@NotNull List<Component> frames, int interval) {
+        this.frames = frames.isEmpty() ? new Component[] { Component.empty() } : frames.toArray(new Component[0]);
+        this.interval = Math.max(1, interval);
+    }
+
+    /**
+     * Create an animation from a list of MiniMessage frames
+     */
+    @NotNull
+    public static TabAnimation frames(@NotNull List<String> formats, int interval) {
+        List<Component> frames = new ArrayList<>(formats.size());
+        for (String format : formats) {
+            frames.add(MINI_MESSAGE.deserialize(ColorUtil.convertLegacyToMiniMessage(format)));
+        }
+        return new TabAnimation(frames, interval);
+    }
+
+    /**
+     * Create an animation that scrolls plain text through a window
+     *
+     * @param text   the text to scroll
+     * @param width  visible characters per frame
+     * @param format MiniMessage format of a frame, with <text> for the window
+     */
+    @NotNull
+    public static TabAnimation scroll(@NotNull String text, int width, @NotNull String format, int interval) {
+        String converted = ColorUtil.convertLegacyToMiniMessage(format);
+        int[] codePoints = text.codePoints().toArray();
+        if (width <= 0 || codePoints.length <= width) {
+            return new TabAnimation(List.of(MINI_MESSAGE.deserialize(converted, Placeholder.unparsed("text", text))),
+                    interval);
+        }
+
+        // Scroll through the text followed by a gap, wrapping around
+        int[] source = new int[codePoints.length + width];
+        System.arraycopy(codePoints, 0, source, 0, codePoints.length);
+        Arrays.fill(source, codePoints.length, source.length, ' ');
+
+        List<Component> frames = new ArrayList<>(source.length);
+        int[] window = new int[width];
+        for (int start = 0; start < source.length; start++) {
+            for (int i = 0; i < width; i++) {
+                window[i] = source[(start + i) % source.length];
+            }
+            frames.add(MINI_MESSAGE.deserialize(converted,
+                    Placeholder.unparsed("text", new String(window, 0, width))));
+        }
+        return new TabAnimation(frames, interval);
+    }
+
+    /**
+     * Create an animation that shifts a gradient across the text
+     *
+     * @param text   MiniMessage text inside the gradient
+     * @param colors gradient colors (names or hex codes)
+     * @param steps  frames per full gradient cycle
+     */
+    @NotNull
+    public static TabAnimation gradient(@NotNull String text, @NotNull List<String> colors, int steps, int interval) {
+        String converted = ColorUtil.convertLegacyToMiniMessage(text);
+        String colorArgs = String.join(":", colors.size() >= 2 ? colors : List.of("white", "white"));
+        int count = Math.max(1, steps);
+
+        List<Component> frames = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // Phase runs from -1 to 1
+            String phase = String.format(Locale.ROOT, "%.3f", -1.0 + 2.0 * i / count);
+            frames.add(MINI_MESSAGE.deserialize("<gradient:" + colorArgs + ":" + phase + ">" + converted + "</gradient>"));
+        }
+        return new TabAnimation(frames, interval);
+    }
+
+    /**
+     * Get the frame shown at a server tick
+     */
+    @NotNull
+    public Component frame(long tick) {
+        return frames[(int) Math.floorMod(tick / interval, (long) frames.length)];
+    }
+
+    /**
+     * Get the number of ticks each frame is shown
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Get the number of frames
+     */
+    public int getFrameCount() {
+        return frames.length;
+    }
+}
@@ -0,0 +1,152 @@
+package de.stylelabor.statusplugin.manager;
+
+import de.stylelabor.statusplugin.util.ComponentTemplate;
+import de.stylelabor.statusplugin.util.VersionedValues;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A compiled tab list line and the placeholders it depends on.
+ *
+ * Dependencies are split into server keys (<online>, <tps>, ...) and player
+ * keys (<status>, <deaths>, PlaceholderAPI tokens, ...). A line is only
+ * rendered again when the version of one of its inputs changed.
+ */
+public final class TabLine {
+
+    private final ComponentTemplate template;
+    private final String[] serverKeys;
+    private final String[] playerKeys;
+
+    /**
+     * The last render of a line for one viewer
+     */
+    public static final class Cache {
+        @Nullable
+        private long[] signature;
+        @Nullable
+        private volatile Component component;
+
+        /**
+         * Get the last rendered component, or null if never rendered
+         */
+        @Nullable
+        public Component component() {
+            return component;
+        }
+
+        /**
+         * Take over the component of a shared cache
+         *
+         * @return true if the component changed
+         */
+        public boolean share(@NotNull Cache source) {
+            Component shared = source.component;
+            if (shared == null || shared == component) {
+                return false;
+            }
+            component = shared;
+            signature = null;
+            return true;
+        }
+    }
+
+    private TabLine(@NotNull ComponentTemplate template, @NotNull Predicate<String> isPlayerKey,
+            @NotNull Set<String> ignoredKeys) {
+        this.template = template;
+
+        List<String> server = new ArrayList<>();
+        List<String> player = new ArrayList<>();
+        for (String key : template.getUsedSlots()) {
+            if (ignoredKeys.contains(key)) {
+                continue;
+            }
+            (isPlayerKey.test(key) ? player : server).add(key);
+        }
+        player.addAll(template.getPlaceholderTokens());
+        this.serverKeys = server.toArray(new String[0]);
+        this.playerKeys = player.toArray(new String[0]);
+    }
+
+    /**
+     * Compile a line (legacy codes must already be converted)
+     *
+     * @param format      the MiniMessage format
+     * @param slotNames   tests if a tag name is a placeholder
+     * @param isPlayerKey tests if a slot key depends on the viewing player
+     * @param ignoredKeys slot keys that are not tracked as dependencies
+     */
+    @NotNull
+    public static TabLine compile(@NotNull String format, @NotNull Predicate<String> slotNames,
+            @NotNull Predicate<String> isPlayerKey, @NotNull Set<String> ignoredKeys) {
+        return new TabLine(ComponentTemplate.compile(format, slotNames), isPlayerKey, ignoredKeys);
+    }
+
+    /**
+     * Render the line into the cache if one of its inputs changed
+     *
+     * @return true if the line was rendered
+     */
+    public boolean update(@NotNull Cache cache, @NotNull VersionedValues server, @NotNull VersionedValues player,
+            @NotNull Function<String, Component> slots, @NotNull UnaryOperator<String> placeholders) {
+        long[] signature = signature(server, player);
+        if (cache.component != null && !template.isDynamic() && Arrays.equals(signature, cache.signature)) {
+            return false;
+        }
+        cache.component = template.render(slots, placeholders);
+        cache.signature = signature;
+        return true;
+    }
+
+    @NotNull
+    private long[] signature(@NotNull VersionedValues server, @NotNull VersionedValues player) {
+        long[] signature = new long[serverKeys.length + playerKeys.length];
+        for (int i = 0; i < serverKeys.length; i++) {
+            signature[i] = server.version(serverKeys[i]);
+        }
+        for (int i = 0; i < playerKeys.length; i++) {
+            signature[serverKeys.length + i] = player.version(playerKeys[i]);
+        }
+        return signature;
+    }
+
+    /**
+     * Get the server-wide slot keys this line depends on
+     */
+    @NotNull
+    public List<String> getServerKeys() {
+        return List.of(serverKeys);
+    }
+
+    /**
+     * Get the player slot keys and PlaceholderAPI tokens this line depends on
+     */
+    @NotNull
+    public List<String> getPlayerKeys() {
+        return List.of(playerKeys);
+    }
+
+    /**
+     * Check if the line renders the same for every player, so it can be
+     * rendered once and shared
+     */
+    public boolean isPlayerInvariant() {
+        return playerKeys.length == 0 && !template.isDynamic();
+    }
+
+    /**
+     * Check if the line has to be rendered every time (dependencies unknown)
+     */
+    public boolean isDynamic() {
+        return template.isDynamic();
+    }
+}
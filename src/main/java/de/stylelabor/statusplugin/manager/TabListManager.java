@@ -2,6 +2,10 @@ package de.stylelabor.statusplugin.manager;
 
 import de.stylelabor.statusplugin.StatusPlugin;
 import de.stylelabor.statusplugin.config.ConfigManager;
+import de.stylelabor.statusplugin.util.CancellationToken;
+import de.stylelabor.statusplugin.util.ColorFormat;
+import de.stylelabor.statusplugin.util.PendingUpdates;
+import de.stylelabor.statusplugin.util.VersionedValues;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
@@ -14,12 +18,17 @@ import org.bukkit.scoreboard.Scoreboard;
 import org.bukkit.scoreboard.Team;
 import org.bukkit.configuration.ConfigurationSection;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.text.DecimalFormat;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 /**
  * Manages tab list formatting including header, footer, player list names, and
@@ -27,42 +36,253 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class TabListManager {
 
-    private static final DecimalFormat TPS_FORMAT = new DecimalFormat("#0.00");
-    private static final DecimalFormat MSPT_FORMAT = new DecimalFormat("#0.0");
+    // DecimalFormat is not thread-safe and values are formatted on several threads
+    private static final ThreadLocal<DecimalFormat> TPS_FORMAT = ThreadLocal.withInitial(
+            () -> new DecimalFormat("#0.00"));
+    private static final ThreadLocal<DecimalFormat> MSPT_FORMAT = ThreadLocal.withInitial(
+            () -> new DecimalFormat("#0.0"));
     private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
     private static final String SORT_TEAM_PREFIX = "sp_sort_";
+    private static final String COUNTRY_ONLINE_TAG = "country_online";
+    private static final String WORLD_COUNT_TAG = "world_count";
+    private static final String ROTATING_TAG = "rotating";
+    private static final String ANIMATION_TAG = "animation";
+
+    // Placeholders available in header, footer and rotating lines
+    private static final Set<String> LINE_SLOTS = Set.of(
+            "status", "player", "deaths", "deaths_formatted", "country", "countrycode", ROTATING_TAG,
+            "online", "max", "tps", "tps_5m", "tps_15m", "performance", "mspt", "time",
+            "overworld", "nether", "end", "total_deaths", "top_countries", WORLD_COUNT_TAG, COUNTRY_ONLINE_TAG,
+            ANIMATION_TAG);
+
+    // Placeholders whose value depends on the viewing player
+    private static final Set<String> PLAYER_SLOTS = Set.of(
+            "status", "player", "deaths", "deaths_formatted", "country", "countrycode", ROTATING_TAG);
+
+    /** Update reason: the player's list name */
+    public static final int UPDATE_NAME = 1;
+    /** Update reason: the player's sorting team */
+    public static final int UPDATE_SORT = 1 << 1;
+    /** Update reason: the player's header and footer */
+    public static final int UPDATE_HEADER = 1 << 2;
+    /** All update reasons */
+    public static final int UPDATE_ALL = UPDATE_NAME | UPDATE_SORT | UPDATE_HEADER;
 
     private final StatusPlugin plugin;
     private final ConfigManager configManager;
     private final StatusManager statusManager;
     private final DeathTracker deathTracker;
     private final CountryManager countryManager;
+    private final WorldCountTracker worldCountTracker;
+    private final VanishManager vanishManager;
+    private final PlaceholderSnapshotManager placeholderSnapshotManager;
+    private final MainThreadQueue mainThreadQueue;
     private final MiniMessage miniMessage;
     private Scoreboard scoreboard;
 
     private BukkitTask updateTask;
+    private BukkitTask rotationTask;
+    private BukkitTask animationTask;
     private final AtomicInteger rotatingIndex = new AtomicInteger(0);
 
     private String playerFormat;
     private int refreshInterval;
+    private int rotationInterval;
+
+    // Adaptive refresh: the interval is stretched while MSPT is high
+    private boolean adaptiveEnabled;
+    private double msptThreshold;
+    private double msptRecover;
+    private int maxRefreshInterval;
+    private volatile int effectiveInterval;
+    private volatile boolean throttled = false;
+
+    // Staggered refresh: players are split into one bucket per tick of the
+    // refresh period, so each tick only refreshes its share of players
+    private final Set<UUID> refreshPlayers = new LinkedHashSet<>();
+    // Refresh order of the current period, taken at its start. Joins and quits
+    // only apply from the next period, so the bucket slices never shift and
+    // skip a player mid-period (joins get their own update right away).
+    private UUID[] periodOrder = new UUID[0];
+    private int bucketCount = 0;
+    private int bucketCursor = 0;
+    // Async timer runs can overlap when a tick is slow; a busy tick is skipped
+    private final AtomicBoolean refreshRunning = new AtomicBoolean(false);
+
+    // Pending update reasons per player, drained once per tick so repeated
+    // requests within a tick collapse into one render. A shared refresh means
+    // server values changed (e.g. a join); changed headers/footers are pushed.
+    private final PendingUpdates pendingUpdates = new PendingUpdates();
     private boolean sortingEnabled;
 
+    // Compiled header/footer/rotating lines
+    private volatile TabLayout layout = new TabLayout(List.of(), List.of(), List.of(), Set.of(), Set.of(), true,
+            Map.of());
+
+    // Lines that are the same for every player, rendered once per update
+    private volatile SharedTabState sharedState;
+
+    // Server-wide placeholder values, refreshed once per update
+    private final VersionedValues serverValues = new VersionedValues();
+
+    // Per-player placeholder values and rendered lines
+    private final Map<UUID, PlayerTabState> playerStates = new ConcurrentHashMap<>();
+
+    // Player values of player-invariant lines (always empty)
+    private static final VersionedValues NO_PLAYER_VALUES = new VersionedValues();
+
+    /**
+     * Compiled lines and the union of their dependencies
+     *
+     * @param rotatingShared whether no rotating message has per-player
+     *                       placeholders, so <rotating> is a server-wide value
+     * @param animations     pre-rendered animations by name
+     */
+    private record TabLayout(List<TabLine> header, List<TabLine> footer, List<TabLine> rotating,
+            Set<String> serverKeys, Set<String> playerKeys, boolean rotatingShared,
+            Map<String, TabAnimation> animations) {
+
+        /**
+         * Check if any line shows the rotating message
+         */
+        private boolean usesRotating() {
+            return serverKeys.contains(ROTATING_TAG) || playerKeys.contains(ROTATING_TAG);
+        }
+
+        /**
+         * Check if any line may show an animation
+         */
+        private boolean usesAnimations() {
+            if (animations.isEmpty()) {
+                return false;
+            }
+            for (String key : serverKeys) {
+                if (slotName(key).equals(ANIMATION_TAG)) {
+                    return true;
+                }
+            }
+            // Lines parsed per render only request their slots while rendering
+            for (List<TabLine> lines : List.of(header, footer, rotating)) {
+                for (TabLine line : lines) {
+                    if (line.isDynamic()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Get the greatest common divisor of the animation intervals, so every
+         * frame change falls on a multiple of it
+         */
+        private int animationPeriod() {
+            int period = 0;
+            for (TabAnimation animation : animations.values()) {
+                int a = period;
+                int b = animation.getInterval();
+                while (b != 0) {
+                    int t = a % b;
+                    a = b;
+                    b = t;
+                }
+                period = a;
+            }
+            return Math.max(1, period);
+        }
+
+        /**
+         * Check if all lines are the same for every player
+         */
+        private static boolean isPlayerInvariant(@NotNull List<TabLine> lines) {
+            for (TabLine line : lines) {
+                if (!line.isPlayerInvariant()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Player-invariant lines rendered once for all players. When a whole
+     * header or footer is player-invariant, the joined component is shared too,
+     * so every player is sent the same instance.
+     */
+    private static final class SharedTabState {
+        private final TabLayout layout;
+        private final TabLine.Cache[] header;
+        private final TabLine.Cache[] footer;
+        private final TabLine.Cache[] rotating;
+        private final boolean headerShared;
+        private final boolean footerShared;
+        private volatile Component headerComponent = Component.empty();
+        private volatile Component footerComponent = Component.empty();
+
+        private SharedTabState(@NotNull TabLayout layout) {
+            this.layout = layout;
+            this.header = PlayerTabState.newCaches(layout.header().size());
+            this.footer = PlayerTabState.newCaches(layout.footer().size());
+            this.rotating = PlayerTabState.newCaches(layout.rotating().size());
+            this.headerShared = TabLayout.isPlayerInvariant(layout.header());
+            this.footerShared = TabLayout.isPlayerInvariant(layout.footer());
+        }
+    }
+
+    /**
+     * A player's placeholder values and the last render of each line
+     */
+    private static final class PlayerTabState {
+        private final TabLayout layout;
+        private final VersionedValues values = new VersionedValues();
+        private final TabLine.Cache[] header;
+        private final TabLine.Cache[] footer;
+        private final TabLine.Cache[] rotating;
+        private Component headerComponent = Component.empty();
+        private Component footerComponent = Component.empty();
+        private boolean sent = false;
+
+        private PlayerTabState(@NotNull TabLayout layout) {
+            this.layout = layout;
+            this.header = newCaches(layout.header().size());
+            this.footer = newCaches(layout.footer().size());
+            this.rotating = newCaches(layout.rotating().size());
+        }
+
+        @NotNull
+        private static TabLine.Cache[] newCaches(int size) {
+            TabLine.Cache[] caches = new TabLine.Cache[size];
+            for (int i = 0; i < size; i++) {
+                caches[i] = new TabLine.Cache();
+            }
+            return caches;
+        }
+    }
+
     // Track teams we've created for sorting
     private final Set<String> createdSortTeams = new HashSet<>();
 
     private boolean nameColorsEnabled;
-    private final Map<String, String> nameColors = new HashMap<>();
+    private final Map<String, ColorFormat> nameColors = new HashMap<>();
 
     public TabListManager(@NotNull StatusPlugin plugin,
             @NotNull ConfigManager configManager,
             @NotNull StatusManager statusManager,
             @NotNull DeathTracker deathTracker,
-            @NotNull CountryManager countryManager) {
+            @NotNull CountryManager countryManager,
+            @NotNull WorldCountTracker worldCountTracker,
+            @NotNull VanishManager vanishManager,
+            @NotNull PlaceholderSnapshotManager placeholderSnapshotManager,
+            @NotNull MainThreadQueue mainThreadQueue) {
         this.plugin = plugin;
         this.configManager = configManager;
         this.statusManager = statusManager;
         this.deathTracker = deathTracker;
         this.countryManager = countryManager;
+        this.worldCountTracker = worldCountTracker;
+        this.vanishManager = vanishManager;
+        this.placeholderSnapshotManager = placeholderSnapshotManager;
+        this.mainThreadQueue = mainThreadQueue;
         this.miniMessage = plugin.getMiniMessage();
         this.scoreboard = Objects.requireNonNull(Bukkit.getScoreboardManager()).getMainScoreboard();
         loadConfig();
@@ -77,7 +297,13 @@ public class TabListManager {
         String rawFormat = config.getString("tablist.player-format", "<status> <gray><player></gray>");
         playerFormat = de.stylelabor.statusplugin.util.ColorUtil.convertLegacyToMiniMessage(rawFormat);
 
-        refreshInterval = config.getInt("tablist.refresh-interval", 5);
+        refreshInterval = Math.max(1, config.getInt("tablist.refresh-interval", 5));
+        adaptiveEnabled = config.getBoolean("tablist.adaptive.enabled", true);
+        msptThreshold = config.getDouble("tablist.adaptive.mspt-threshold", 45.0);
+        msptRecover = Math.min(msptThreshold, config.getDouble("tablist.adaptive.mspt-recover", 40.0));
+        maxRefreshInterval = Math.max(refreshInterval, config.getInt("tablist.adaptive.max-interval", 30));
+        effectiveInterval = refreshInterval;
+        throttled = false;
         sortingEnabled = config.getBoolean("tablist.sorting.enabled", true);
 
         nameColorsEnabled = config.getBoolean("chat.name-colors.enabled", false);
@@ -87,11 +313,123 @@ public class TabListManager {
             for (String key : nameSection.getKeys(false)) {
                 String color = nameSection.getString(key);
                 if (color != null) {
-                    nameColors.put(key.toUpperCase(),
-                            de.stylelabor.statusplugin.util.ColorUtil.convertLegacyToMiniMessage(color));
+                    nameColors.put(key.toUpperCase(), ColorFormat.parse(
+                            de.stylelabor.statusplugin.util.ColorUtil.convertLegacyToMiniMessage(color)));
                 }
             }
         }
+
+        compileLines();
+    }
+
+    /**
+     * Compile header, footer and rotating lines and collect their dependencies
+     */
+    private void compileLines() {
+        var tablistConfig = configManager.getTablist();
+        rotationInterval = tablistConfig.getInt("rotating.interval", 5);
+        List<TabLine> rotatingLines = tablistConfig.getBoolean("rotating.enabled", true)
+                // <rotating> inside a rotating message is always empty
+                ? compileLines(tablistConfig.getStringList("rotating.messages"), Set.of(ROTATING_TAG), false)
+                : List.of();
+        // Rotating messages without per-player placeholders are rendered once for everyone
+        boolean rotatingShared = TabLayout.isPlayerInvariant(rotatingLines);
+        List<TabLine> headerLines = compileLines(tablistConfig.getStringList("header.lines"), Set.of(),
+                rotatingShared);
+        List<TabLine> footerLines = compileLines(tablistConfig.getStringList("footer.lines"), Set.of(),
+                rotatingShared);
+
+        Set<String> server = new HashSet<>();
+        Set<String> player = new HashSet<>();
+        for (List<TabLine> lines : List.of(headerLines, footerLines, rotatingLines)) {
+            for (TabLine line : lines) {
+                server.addAll(line.getServerKeys());
+                player.addAll(line.getPlayerKeys());
+            }
+        }
+        layout = new TabLayout(headerLines, footerLines, rotatingLines, Set.copyOf(server), Set.copyOf(player),
+                rotatingShared, loadAnimations());
+
+        // Tokens are resolved on the main thread for the async renders
+        Set<String> tokens = new HashSet<>();
+        for (String key : player) {
+            if (key.startsWith("%")) {
+                tokens.add(key);
+            }
+        }
+        de.stylelabor.statusplugin.util.PlaceholderUtil.replaceTokens(playerFormat, token -> {
+            tokens.add(token);
+            return token;
+        });
+        placeholderSnapshotManager.registerTokens("tablist", tokens);
+
+        serverValues.clear();
+        playerStates.clear();
+        sharedState = null;
+    }
+
+    /**
+     * Load and pre-render the animations of tablist.yml
+     */
+    @NotNull
+    private Map<String, TabAnimation> loadAnimations() {
+        ConfigurationSection section = configManager.getTablist().getConfigurationSection("animations");
+        if (section == null) {
+            return Map.of();
+        }
+
+        Map<String, TabAnimation> animations = new HashMap<>();
+        for (String name : section.getKeys(false)) {
+            ConfigurationSection animation = section.getConfigurationSection(name);
+            if (animation == null) {
+                continue;
+            }
+            int interval = animation.getInt("interval", 10);
+            String type = animation.getString("type", "frames").toLowerCase(Locale.ROOT);
+            TabAnimation compiled = switch (type) {
+                case "scroll" -> TabAnimation.scroll(animation.getString("text", ""),
+                        animation.getInt("width", 16), animation.getString("format", "<text>"), interval);
+                case "gradient" -> TabAnimation.gradient(animation.getString("text", ""),
+                        animation.getStringList("colors"), animation.getInt("steps", 20), interval);
+                default -> TabAnimation.frames(animation.getStringList("frames"), interval);
+            };
+            animations.put(name.toLowerCase(Locale.ROOT), compiled);
+            plugin.debug("Loaded tab animation " + name + " (" + type + ", " + compiled.getFrameCount()
+                    + " frames)");
+        }
+        return Map.copyOf(animations);
+    }
+
+    @NotNull
+    private List<TabLine> compileLines(@NotNull List<String> formats, @NotNull Set<String> ignoredKeys,
+            boolean rotatingShared) {
+        List<TabLine> lines = new ArrayList<>(formats.size());
+        for (String format : formats) {
+            lines.add(TabLine.compile(de.stylelabor.statusplugin.util.ColorUtil.convertLegacyToMiniMessage(format),
+                    TabListManager::isLineSlot, key -> isPlayerKey(key, rotatingShared), ignoredKeys));
+        }
+        return List.copyOf(lines);
+    }
+
+    private static boolean isLineSlot(@NotNull String name) {
+        return LINE_SLOTS.contains(name) || name.startsWith(COUNTRY_ONLINE_TAG + "_");
+    }
+
+    private static boolean isPlayerKey(@NotNull String key, boolean rotatingShared) {
+        if (key.startsWith("%")) {
+            return true;
+        }
+        String name = slotName(key);
+        return name.equals(ROTATING_TAG) ? !rotatingShared : PLAYER_SLOTS.contains(name);
+    }
+
+    /**
+     * Get the tag name of a slot key ("world_count:world" -> "world_count")
+     */
+    @NotNull
+    private static String slotName(@NotNull String key) {
+        int colon = key.indexOf(':');
+        return colon < 0 ? key : key.substring(0, colon);
     }
 
     /**
@@ -108,38 +446,309 @@ public class TabListManager {
         if (!isEnabled())
             return;
 
-        updateTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> {
-            updateAllPlayers();
-            rotatingIndex.incrementAndGet();
-        }, 20L, refreshInterval * 20L);
+        // One bucket of players per tick; every player is refreshed once per effectiveInterval
+        bucketCount = 0;
+        bucketCursor = 0;
+        updateTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::tickRefresh, 1L, 1L);
+
+        // Rotation runs on its own interval and only pushes the rotating message
+        TabLayout current = layout;
+        if (rotationInterval > 0 && current.rotating().size() > 1 && current.usesRotating()) {
+            rotationTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::rotate,
+                    rotationInterval * 20L, rotationInterval * 20L);
+        }
+
+        // Animations advance by server tick; frames are looked up, never rendered
+        if (current.usesAnimations()) {
+            long period = current.animationPeriod();
+            animationTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::pushFrameValues,
+                    period, period);
+        }
+    }
+
+    /**
+     * Refresh the players of the current bucket (every tick). Server values
+     * are refreshed once per period, before the first bucket.
+     */
+    private void tickRefresh() {
+        if (!refreshRunning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshBucket();
+        } finally {
+            refreshRunning.set(false);
+        }
+    }
+
+    private void refreshBucket() {
+        boolean serverStateFresh = false;
+        if (bucketCursor >= bucketCount) {
+            adaptRefreshRate();
+            bucketCount = effectiveInterval * 20;
+            bucketCursor = 0;
+            if (!isEnabled())
+                return;
+
+            periodOrder = trackOnlinePlayers();
+            refreshServerState();
+            serverStateFresh = true;
+        }
+        int bucket = bucketCursor++;
+
+        // Contiguous slice of the refresh order, so buckets differ by at most one
+        // player; players who quit since the period started are skipped when drained
+        UUID[] order = periodOrder;
+        int from = (int) ((long) order.length * bucket / bucketCount);
+        int to = (int) ((long) order.length * (bucket + 1) / bucketCount);
+        for (int i = from; i < to; i++) {
+            requestUpdate(order[i], UPDATE_ALL);
+        }
+
+        drainUpdates(serverStateFresh);
+    }
+
+    /**
+     * Queue an update; reasons of requests for the same player are merged
+     */
+    private void requestUpdate(@NotNull UUID uuid, int reasons) {
+        pendingUpdates.request(uuid, reasons);
+    }
+
+    /**
+     * Run the pending updates, one per player
+     *
+     * @param serverStateFresh whether server values were already refreshed this tick
+     */
+    private void drainUpdates(boolean serverStateFresh) {
+        if (pendingUpdates.takeSharedRefresh()) {
+            if (!serverStateFresh) {
+                refreshServerState();
+            }
+            pushToAll(layout);
+        }
+
+        // Renders reuse the server values of the current period; they are only
+        // refreshed at the period start or when a refresh was requested above
+        pendingUpdates.drain((uuid, reasons) -> {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null) {
+                update(player, reasons);
+            }
+        });
+    }
+
+    /**
+     * Add a player to the staggered refresh, from the next period
+     */
+    private void trackPlayer(@NotNull UUID uuid) {
+        synchronized (refreshPlayers) {
+            refreshPlayers.add(uuid);
+        }
+    }
+
+    /**
+     * Remove a player from the staggered refresh, from the next period
+     */
+    private void untrackPlayer(@NotNull UUID uuid) {
+        synchronized (refreshPlayers) {
+            refreshPlayers.remove(uuid);
+        }
+    }
+
+    /**
+     * Reconcile the tracked players with the online players: add players that
+     * were online before the manager started (e.g. after a reload) and drop
+     * any that are no longer online
+     *
+     * @return the refresh order for the next period
+     */
+    @NotNull
+    private UUID[] trackOnlinePlayers() {
+        Set<UUID> online = new HashSet<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            online.add(player.getUniqueId());
+        }
+        synchronized (refreshPlayers) {
+            refreshPlayers.retainAll(online);
+            refreshPlayers.addAll(online);
+            return refreshPlayers.toArray(new UUID[0]);
+        }
+    }
+
+    /**
+     * Stretch the refresh interval while the server is lagging and shrink it
+     * back gradually once it recovers. While stretched, rotation, animations
+     * and PlaceholderAPI refreshes are paused.
+     */
+    private void adaptRefreshRate() {
+        if (!adaptiveEnabled) {
+            effectiveInterval = refreshInterval;
+            throttled = false;
+            placeholderSnapshotManager.setStretch(1);
+            return;
+        }
+
+        double mspt = Bukkit.getAverageTickTime();
+        int current = effectiveInterval;
+        int next = current;
+        if (mspt > msptThreshold) {
+            next = Math.min(maxRefreshInterval, current * 2);
+        } else if (mspt < msptRecover && current > refreshInterval) {
+            // Halve the extra delay per refresh
+            next = Math.max(refreshInterval, current - Math.max(1, (current - refreshInterval) / 2));
+        }
+
+        if (next != current) {
+            plugin.debug("Tab list refresh interval " + current + "s -> " + next + "s (MSPT "
+                    + MSPT_FORMAT.get().format(mspt) + ")");
+        }
+        effectiveInterval = next;
+        throttled = next > refreshInterval;
+
+        // Main-thread PlaceholderAPI resolution slows down by the same factor
+        placeholderSnapshotManager.setStretch(next / refreshInterval);
+    }
+
+    /**
+     * Get the refresh interval currently in effect, in seconds
+     */
+    public int getEffectiveRefreshInterval() {
+        return effectiveInterval;
+    }
+
+    /**
+     * Get the configured refresh interval, in seconds
+     */
+    public int getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    /**
+     * Check if the refresh rate is currently reduced because of high MSPT
+     */
+    public boolean isThrottled() {
+        return throttled;
+    }
+
+    /**
+     * Advance the rotating message and push it to all players
+     */
+    private void rotate() {
+        if (throttled)
+            return;
+
+        rotatingIndex.incrementAndGet();
+        pushFrameValues();
     }
 
     /**
-     * Update all online players' tab list
+     * Recompute the animation frames and the rotating message and push the
+     * players whose header or footer changed. Other placeholder values are
+     * left as they are until the next refresh.
+     */
+    private void pushFrameValues() {
+        if (!isEnabled() || throttled)
+            return;
+
+        TabLayout current = layout;
+        synchronized (this) {
+            if (!current.animations().isEmpty()) {
+                for (String key : serverValues.keys()) {
+                    if (slotName(key).equals(ANIMATION_TAG)) {
+                        putServerValue(key);
+                    }
+                }
+            }
+            if (current.serverKeys().contains(ROTATING_TAG)) {
+                putServerValue(ROTATING_TAG);
+            }
+            renderSharedLines();
+        }
+        pushToAll(current);
+    }
+
+    /**
+     * Push the header and footer of every rendered player after server values
+     * changed. Player values are not refreshed, and only players whose header
+     * or footer changed are sent a packet.
+     */
+    private void pushToAll(@NotNull TabLayout current) {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            PlayerTabState state = playerStates.get(player.getUniqueId());
+            if (state != null && state.layout == current) {
+                pushHeaderFooter(player, state, false);
+            }
+        }
+    }
+
+    /**
+     * Update all online players' tab list (on the next tick)
      */
     public void updateAllPlayers() {
+        if (!isEnabled())
+            return;
+
         for (Player player : Bukkit.getOnlinePlayers()) {
-            updatePlayer(player);
+            requestUpdate(player.getUniqueId(), UPDATE_ALL);
         }
     }
 
     /**
-     * Update a specific player's tab list
+     * Refresh server-wide values such as <online> and push the headers and
+     * footers that changed (on the next tick). Other players' list names and
+     * teams are not touched, so a join or quit costs one shared refresh
+     * instead of a full update of every player.
+     */
+    public void updateServerValues() {
+        if (!isEnabled())
+            return;
+
+        pendingUpdates.requestSharedRefresh();
+    }
+
+    /**
+     * Update a specific player's tab list (on the next tick)
      */
     public void updatePlayer(@NotNull Player player) {
+        updatePlayer(player, UPDATE_ALL);
+    }
+
+    /**
+     * Update parts of a player's tab list (on the next tick)
+     *
+     * @param reasons the parts to update, e.g. {@link #UPDATE_NAME} | {@link #UPDATE_HEADER}
+     */
+    public void updatePlayer(@NotNull Player player, int reasons) {
         if (!isEnabled())
             return;
 
+        // A late request (e.g. an async callback) must not re-add a player who quit
+        if (!player.isOnline())
+            return;
+
+        trackPlayer(player.getUniqueId());
+        requestUpdate(player.getUniqueId(), reasons);
+    }
+
+    private void update(@NotNull Player player, int reasons) {
+        // Stop as soon as the player quits
+        CancellationToken session = mainThreadQueue.sessionToken(player);
+
         // Update player list name
-        updatePlayerListName(player);
+        if ((reasons & UPDATE_NAME) != 0 && !session.isCancelled()) {
+            updatePlayerListName(player);
+        }
 
         // Update sorting if enabled
-        if (sortingEnabled) {
+        if (sortingEnabled && (reasons & UPDATE_SORT) != 0 && !session.isCancelled()) {
             updatePlayerSorting(player);
         }
 
         // Update header and footer
-        updateHeaderFooter(player);
+        if ((reasons & UPDATE_HEADER) != 0 && !session.isCancelled()) {
+            updateHeaderFooter(player);
+        }
     }
 
     /**
@@ -163,13 +772,10 @@ public class TabListManager {
                 sortKey + "_" +
                 player.getName().substring(0, Math.min(player.getName().length(), 8));
 
-        // Remove player from any existing sort teams
-        removeFromSortTeams(player);
-
-        // Get or create team on main thread
-        Bukkit.getScheduler().runTask(plugin, () -> {
-            if (!player.isOnline())
-                return;
+        // Move the player between teams on the main thread
+        mainThreadQueue.submit(MainThreadQueue.Priority.HIGH, player, () -> {
+            // Remove player from any existing sort teams
+            removeFromSortTeams(player);
 
             Team team = scoreboard.getTeam(teamName);
             if (team == null) {
@@ -184,235 +790,472 @@ public class TabListManager {
     }
 
     /**
-     * Remove a player from sorting teams
+     * Remove a player from sorting teams (main thread)
      */
     private void removeFromSortTeams(@NotNull Player player) {
-        Bukkit.getScheduler().runTask(plugin, () -> {
-            for (String teamName : new ArrayList<>(createdSortTeams)) {
-                Team team = scoreboard.getTeam(teamName);
-                if (team != null) {
-                    if (team.hasPlayer(player)) {
-                        team.removePlayer(player);
-                    }
-                    // Clean up empty teams
-                    if (team.getSize() == 0) {
-                        team.unregister();
-                        createdSortTeams.remove(teamName);
-                    }
-                } else {
+        for (String teamName : new ArrayList<>(createdSortTeams)) {
+            Team team = scoreboard.getTeam(teamName);
+            if (team != null) {
+                if (team.hasPlayer(player)) {
+                    team.removePlayer(player);
+                }
+                // Clean up empty teams
+                if (team.getSize() == 0) {
+                    team.unregister();
                     createdSortTeams.remove(teamName);
                 }
+            } else {
+                createdSortTeams.remove(teamName);
             }
-        });
+        }
     }
 
     /**
      * Remove a player from all sorting (called on quit)
      */
     public void removePlayer(@NotNull Player player) {
-        removeFromSortTeams(player);
+        // Not owned by the player, so it still runs after they are gone
+        mainThreadQueue.submit(MainThreadQueue.Priority.HIGH, () -> removeFromSortTeams(player));
+        playerStates.remove(player.getUniqueId());
+        pendingUpdates.remove(player.getUniqueId());
+        untrackPlayer(player.getUniqueId());
     }
 
     /**
      * Update a player's list name
      */
     public void updatePlayerListName(@NotNull Player player) {
-        String statusFormat = statusManager.getStatusFormat(player.getUniqueId());
         int deaths = deathTracker.getDeaths(player.getUniqueId());
         String country = countryManager.getCountry(player.getUniqueId()).orElse("");
         String countryCode = countryManager.getCountryCode(player.getUniqueId()).orElse("");
 
         TagResolver.Builder resolvers = TagResolver.builder();
 
-        if (!statusFormat.isEmpty()) {
-            resolvers.resolver(Placeholder.component("status", miniMessage.deserialize(statusFormat)));
-        } else {
-            resolvers.resolver(Placeholder.component("status", Component.empty()));
-        }
+        // Pre-parsed when the status options are loaded
+        resolvers.resolver(Placeholder.component("status", statusManager.getStatusDisplay(player.getUniqueId())));
 
         Component playerName = Component.text(player.getName());
         if (nameColorsEnabled) {
             String rawStatus = statusManager.getStatus(player);
             if (rawStatus != null) {
-                String color = nameColors.get(rawStatus.toUpperCase());
+                ColorFormat color = nameColors.get(rawStatus.toUpperCase());
                 if (color != null) {
-                    playerName = miniMessage.deserialize(color).append(playerName);
+                    playerName = color.apply(playerName);
                 }
             }
         }
         resolvers.resolver(Placeholder.component("player", playerName));
         resolvers.resolver(Placeholder.unparsed("deaths", String.valueOf(deaths)));
-        // Formatted deaths: [☠ N]
-        resolvers.resolver(Placeholder.component("deaths_formatted",
-                miniMessage.deserialize(
-                        "<dark_gray>[</dark_gray><red>☠</red> <red>" + deaths + "</red><dark_gray>]</dark_gray>")));
+        // Formatted deaths, e.g. [☠ N] (deaths.format)
+        resolvers.resolver(Placeholder.component("deaths_formatted", deathTracker.getFormattedDeaths(deaths)));
         resolvers.resolver(Placeholder.unparsed("country", country));
         resolvers.resolver(Placeholder.unparsed("countrycode", countryCode));
 
-        String formatWithPapi = de.stylelabor.statusplugin.util.PlaceholderUtil.parse(player, playerFormat);
+        String formatWithPapi = placeholderSnapshotManager.parse(player, playerFormat);
         formatWithPapi = de.stylelabor.statusplugin.util.ColorUtil.convertLegacyToMiniMessage(formatWithPapi);
 
         Component listName = miniMessage.deserialize(formatWithPapi, resolvers.build());
 
         // Schedule on main thread as player list name changes require main thread
-        Bukkit.getScheduler().runTask(plugin, () -> {
-            if (player.isOnline()) {
-                player.playerListName(listName);
-            }
-        });
+        mainThreadQueue.submit(MainThreadQueue.Priority.NORMAL, player, () -> player.playerListName(listName));
     }
 
     /**
-     * Update header and footer for a player
+     * Update header and footer for a player.
+     * Only lines whose placeholders changed are rendered again, and nothing is
+     * sent if no line changed.
      */
     private void updateHeaderFooter(@NotNull Player player) {
-        var tablistConfig = configManager.getTablist();
+        TabLayout current = layout;
+        PlayerTabState state = playerStates.compute(player.getUniqueId(),
+                (uuid, existing) -> existing != null && existing.layout == current ? existing
+                        : new PlayerTabState(current));
+        pushHeaderFooter(player, state, true);
+    }
 
-        // Build header
-        List<String> headerLines = tablistConfig.getStringList("header.lines");
-        headerLines.replaceAll(de.stylelabor.statusplugin.util.ColorUtil::convertLegacyToMiniMessage);
-        Component header = buildMultilineComponent(headerLines, player);
+    /**
+     * Render a player's changed lines and send the header and footer if any
+     * line changed
+     *
+     * @param refreshValues whether to refresh all placeholder values of the
+     *                      player, or only the rotating message (animation
+     *                      frames are server values)
+     */
+    private void pushHeaderFooter(@NotNull Player player, @NotNull PlayerTabState state, boolean refreshValues) {
+        if (mainThreadQueue.sessionToken(player).isCancelled()) {
+            return;
+        }
 
-        // Rotating messages are now handled via <rotating> placeholder
-        // which can be placed anywhere in header.lines or footer.lines
+        TabLayout current = state.layout;
+        SharedTabState shared = sharedState;
+        if (shared != null && shared.layout != current) {
+            shared = null;
+        }
+
+        Component header;
+        Component footer;
+        synchronized (state) {
+            if (refreshValues) {
+                refreshPlayerValues(player, state);
+            } else if (current.playerKeys().contains(ROTATING_TAG)) {
+                putPlayerValue(player, state, ROTATING_TAG);
+            }
 
-        // Build footer
-        List<String> footerLines = tablistConfig.getStringList("footer.lines");
-        footerLines.replaceAll(de.stylelabor.statusplugin.util.ColorUtil::convertLegacyToMiniMessage);
-        Component footer = buildMultilineComponent(footerLines, player);
+            Function<String, Component> slots = key -> lookup(player, state, key);
+            UnaryOperator<String> placeholders = token -> lookupToken(player, state, token);
+
+            boolean headerChanged;
+            if (shared != null && shared.headerShared) {
+                headerChanged = state.headerComponent != shared.headerComponent;
+                state.headerComponent = shared.headerComponent;
+            } else {
+                headerChanged = renderLines(current.header(), state.header, shared != null ? shared.header : null,
+                        state, slots, placeholders);
+                if (headerChanged) {
+                    state.headerComponent = joinLines(state.header);
+                }
+            }
+
+            boolean footerChanged;
+            if (shared != null && shared.footerShared) {
+                footerChanged = state.footerComponent != shared.footerComponent;
+                state.footerComponent = shared.footerComponent;
+            } else {
+                footerChanged = renderLines(current.footer(), state.footer, shared != null ? shared.footer : null,
+                        state, slots, placeholders);
+                if (footerChanged) {
+                    state.footerComponent = joinLines(state.footer);
+                }
+            }
+
+            if (state.sent && !headerChanged && !footerChanged) {
+                return;
+            }
+            state.sent = true;
+            header = state.headerComponent;
+            footer = state.footerComponent;
+        }
 
         // Apply header and footer
-        Component finalHeader = header;
-        Component finalFooter = footer;
-        Bukkit.getScheduler().runTask(plugin, () -> {
-            if (player.isOnline()) {
-                player.sendPlayerListHeaderAndFooter(finalHeader, finalFooter);
+        mainThreadQueue.submit(MainThreadQueue.Priority.LOW, player,
+                () -> player.sendPlayerListHeaderAndFooter(header, footer));
+    }
+
+    /**
+     * Render a player's lines whose inputs changed; player-invariant lines are
+     * taken from the shared render
+     *
+     * @param shared caches of the shared render, or null if not available
+     * @return true if any line changed
+     */
+    private boolean renderLines(@NotNull List<TabLine> lines, @NotNull TabLine.Cache[] caches,
+            @Nullable TabLine.Cache[] shared, @NotNull PlayerTabState state,
+            @NotNull Function<String, Component> slots, @NotNull UnaryOperator<String> placeholders) {
+        boolean changed = false;
+        for (int i = 0; i < lines.size(); i++) {
+            TabLine line = lines.get(i);
+            if (shared != null && line.isPlayerInvariant() && shared[i].component() != null) {
+                changed |= caches[i].share(shared[i]);
+            } else {
+                changed |= line.update(caches[i], serverValues, state.values, slots, placeholders);
             }
-        });
+        }
+        return changed;
     }
 
     /**
-     * Build a multi-line component from a list of lines
+     * Render the player-invariant lines once for all players
      */
-    @NotNull
-    private Component buildMultilineComponent(@NotNull List<String> lines, @NotNull Player player) {
-        if (lines.isEmpty()) {
-            return Component.empty();
+    private void renderSharedLines() {
+        TabLayout current = layout;
+        SharedTabState shared = sharedState(current);
+
+        // The current rotating message, if it is the same for every player
+        List<TabLine> rotatingLines = current.rotating();
+        if (!rotatingLines.isEmpty()) {
+            int index = Math.floorMod(rotatingIndex.get(), rotatingLines.size());
+            TabLine line = rotatingLines.get(index);
+            if (line.isPlayerInvariant()) {
+                line.update(shared.rotating[index], serverValues, NO_PLAYER_VALUES, this::lookupServer,
+                        UnaryOperator.identity());
+            }
         }
 
-        Component result = parseWithPlaceholders(lines.get(0), player);
-        for (int i = 1; i < lines.size(); i++) {
-            result = result.appendNewline().append(parseWithPlaceholders(lines.get(i), player));
+        if (renderInvariantLines(current.header(), shared.header) && shared.headerShared) {
+            shared.headerComponent = joinLines(shared.header);
+        }
+        if (renderInvariantLines(current.footer(), shared.footer) && shared.footerShared) {
+            shared.footerComponent = joinLines(shared.footer);
         }
-        return result;
     }
 
     /**
-     * Parse a string with all available placeholders
+     * Get the shared render state of a layout, creating it if needed (lock held)
      */
     @NotNull
-    private Component parseWithPlaceholders(@NotNull String text, @NotNull Player player) {
-        return parseWithPlaceholders(text, player, false);
+    private SharedTabState sharedState(@NotNull TabLayout current) {
+        SharedTabState shared = sharedState;
+        if (shared == null || shared.layout != current) {
+            shared = new SharedTabState(current);
+            sharedState = shared;
+        }
+        return shared;
+    }
+
+    private boolean renderInvariantLines(@NotNull List<TabLine> lines, @NotNull TabLine.Cache[] caches) {
+        boolean changed = false;
+        for (int i = 0; i < lines.size(); i++) {
+            TabLine line = lines.get(i);
+            if (line.isPlayerInvariant()) {
+                changed |= line.update(caches[i], serverValues, NO_PLAYER_VALUES, this::lookupServer,
+                        UnaryOperator.identity());
+            }
+        }
+        return changed;
     }
 
     /**
-     * Parse a string with all available placeholders
-     * 
-     * @param isNested set to true if parsing the rotating message itself to prevent
-     *                 infinite recursion
+     * Join rendered lines into a multi-line component
      */
     @NotNull
-    private Component parseWithPlaceholders(@NotNull String text, @NotNull Player player, boolean isNested) {
-        // Parse PAPI placeholders first
-        String textWithPapi = de.stylelabor.statusplugin.util.PlaceholderUtil.parse(player, text);
-        // Convert any legacy colors key PAPI might have returned
-        textWithPapi = de.stylelabor.statusplugin.util.ColorUtil.convertLegacyToMiniMessage(textWithPapi);
+    private Component joinLines(@NotNull TabLine.Cache[] caches) {
+        if (caches.length == 0) {
+            return Component.empty();
+        }
 
-        String statusFormat = statusManager.getStatusFormat(player.getUniqueId());
-        int deaths = deathTracker.getDeaths(player.getUniqueId());
-        String country = countryManager.getCountry(player.getUniqueId()).orElse("");
-        String countryCode = countryManager.getCountryCode(player.getUniqueId()).orElse("");
+        Component result = Objects.requireNonNull(caches[0].component());
+        for (int i = 1; i < caches.length; i++) {
+            result = result.appendNewline().append(Objects.requireNonNull(caches[i].component()));
+        }
+        return result;
+    }
 
-        TagResolver.Builder resolvers = TagResolver.builder();
+    /**
+     * Refresh the server-wide placeholder values used by the lines and render
+     * the player-invariant lines
+     */
+    private synchronized void refreshServerState() {
+        Set<String> lineServerKeys = layout.serverKeys();
+        for (String key : lineServerKeys) {
+            if (!key.equals(ROTATING_TAG)) {
+                putServerValue(key);
+            }
+        }
+        // Keys requested on demand by lines parsed per render
+        for (String key : serverValues.keys()) {
+            if (!lineServerKeys.contains(key) && !key.equals(ROTATING_TAG)) {
+                putServerValue(key);
+            }
+        }
+        // The rotating message depends on the values above
+        if (lineServerKeys.contains(ROTATING_TAG) || serverValues.contains(ROTATING_TAG)) {
+            putServerValue(ROTATING_TAG);
+        }
+        renderSharedLines();
+    }
 
-        // Player-specific placeholders
-        if (!statusFormat.isEmpty()) {
-            resolvers.resolver(Placeholder.component("status", miniMessage.deserialize(statusFormat)));
-        } else {
-            resolvers.resolver(Placeholder.component("status", Component.empty()));
+    /**
+     * Compute a server-wide placeholder value
+     */
+    private void putServerValue(@NotNull String key) {
+        String name = slotName(key);
+        switch (name) {
+            case "online" -> putText(serverValues, key, String.valueOf(vanishManager.getVisibleCount()));
+            case "max" -> putText(serverValues, key, String.valueOf(Bukkit.getMaxPlayers()));
+            case "tps" -> putText(serverValues, key, TPS_FORMAT.get().format(Bukkit.getTPS()[0]));
+            case "tps_5m" -> putText(serverValues, key, TPS_FORMAT.get().format(Bukkit.getTPS()[1]));
+            case "tps_15m" -> putText(serverValues, key, TPS_FORMAT.get().format(Bukkit.getTPS()[2]));
+            case "performance" -> serverValues.put(key, getPerformanceFormat(Bukkit.getTPS()[0]),
+                    miniMessage::deserialize);
+            case "mspt" -> putText(serverValues, key, MSPT_FORMAT.get().format(Bukkit.getAverageTickTime()));
+            case "time" -> putText(serverValues, key, LocalTime.now().format(TIME_FORMAT));
+            case "overworld" -> putText(serverValues, key,
+                    String.valueOf(worldCountTracker.getPlayersInEnvironment(World.Environment.NORMAL)));
+            case "nether" -> putText(serverValues, key,
+                    String.valueOf(worldCountTracker.getPlayersInEnvironment(World.Environment.NETHER)));
+            case "end" -> putText(serverValues, key,
+                    String.valueOf(worldCountTracker.getPlayersInEnvironment(World.Environment.THE_END)));
+            case "total_deaths" -> putText(serverValues, key, formatNumber(deathTracker.getTotalDeaths()));
+            case "top_countries" -> serverValues.put(key, countryManager.getTopCountriesFormat(),
+                    raw -> countryManager.getTopCountriesComponent());
+            case ROTATING_TAG -> serverValues.putComponent(key, renderSharedRotating());
+            case ANIMATION_TAG -> serverValues.putComponent(key, animationFrame(key));
+            case WORLD_COUNT_TAG -> putText(serverValues, key, String.valueOf(name.length() < key.length()
+                    ? worldCountTracker.getPlayersInWorld(key.substring(name.length() + 1))
+                    : 0));
+            default -> {
+                // <country_online:DE> or <country_online_DE>
+                String code = name.equals(COUNTRY_ONLINE_TAG) && name.length() < key.length()
+                        ? key.substring(name.length() + 1)
+                        : name.startsWith(COUNTRY_ONLINE_TAG + "_") ? name.substring(COUNTRY_ONLINE_TAG.length() + 1)
+                                : null;
+                putText(serverValues, key, code != null ? String.valueOf(countryManager.getOnlineCount(code)) : "");
+            }
         }
-        resolvers.resolver(Placeholder.unparsed("player", player.getName()));
-        resolvers.resolver(Placeholder.unparsed("deaths", String.valueOf(deaths)));
-        // Formatted deaths: [☠ N]
-        resolvers.resolver(Placeholder.component("deaths_formatted",
-                miniMessage.deserialize(
-                        "<dark_gray>[</dark_gray><red>☠</red> <red>" + deaths + "</red><dark_gray>]</dark_gray>")));
-        resolvers.resolver(Placeholder.unparsed("country", country));
-        resolvers.resolver(Placeholder.unparsed("countrycode", countryCode));
+    }
 
-        // Rotating message placeholder
-        // Only resolve if we are not already inside a rotating message
-        if (!isNested) {
-            if (configManager.getTablist().getBoolean("rotating.enabled", true)) {
-                List<String> rotatingMessages = configManager.getTablist().getStringList("rotating.messages");
-                if (!rotatingMessages.isEmpty()) {
-                    int index = rotatingIndex.get() % rotatingMessages.size();
-                    String rotatingLine = rotatingMessages.get(index);
-                    // Convert legacy color codes in the rotating message
-                    rotatingLine = de.stylelabor.statusplugin.util.ColorUtil.convertLegacyToMiniMessage(rotatingLine);
-                    // Parse placeholders inside the rotating message itself
-                    resolvers.resolver(
-                            Placeholder.component("rotating", parseWithPlaceholders(rotatingLine, player, true)));
-                } else {
-                    resolvers.resolver(Placeholder.component("rotating", Component.empty()));
-                }
-            } else {
-                resolvers.resolver(Placeholder.component("rotating", Component.empty()));
+    /**
+     * Refresh the placeholder values of a player used by the lines
+     */
+    private void refreshPlayerValues(@NotNull Player player, @NotNull PlayerTabState state) {
+        // PlaceholderAPI values keep their last value while throttled
+        boolean skipTokens = throttled;
+        Set<String> linePlayerKeys = state.layout.playerKeys();
+        for (String key : linePlayerKeys) {
+            if (!key.equals(ROTATING_TAG) && !(skipTokens && key.startsWith("%") && state.values.contains(key))) {
+                putPlayerValue(player, state, key);
+            }
+        }
+        // Keys requested on demand by lines parsed per render
+        for (String key : state.values.keys()) {
+            if (!linePlayerKeys.contains(key) && !key.equals(ROTATING_TAG) && !(skipTokens && key.startsWith("%"))) {
+                putPlayerValue(player, state, key);
             }
+        }
+        // The rotating message depends on the values above
+        if (linePlayerKeys.contains(ROTATING_TAG) || state.values.contains(ROTATING_TAG)) {
+            putPlayerValue(player, state, ROTATING_TAG);
+        }
+    }
+
+    /**
+     * Compute a placeholder value of a player
+     */
+    private void putPlayerValue(@NotNull Player player, @NotNull PlayerTabState state, @NotNull String key) {
+        VersionedValues values = state.values;
+        if (key.startsWith("%")) {
+            values.putRaw(key, placeholderSnapshotManager.parse(player, key));
+            return;
+        }
+
+        UUID uuid = player.getUniqueId();
+        switch (slotName(key)) {
+            case "status" -> values.putComponent(key, statusManager.getStatusDisplay(uuid));
+            case "player" -> putText(values, key, player.getName());
+            case "deaths" -> putText(values, key, String.valueOf(deathTracker.getDeaths(uuid)));
+            case "deaths_formatted" -> values.put(key, String.valueOf(deathTracker.getDeaths(uuid)),
+                    deaths -> deathTracker.getFormattedDeaths(Integer.parseInt(deaths)));
+            case "country" -> putText(values, key, countryManager.getCountry(uuid).orElse(""));
+            case "countrycode" -> putText(values, key, countryManager.getCountryCode(uuid).orElse(""));
+            case ROTATING_TAG -> values.putComponent(key, renderRotating(player, state));
+            default -> putText(values, key, "");
+        }
+    }
+
+    /**
+     * Render the current rotating message for a player (cached per message)
+     */
+    @NotNull
+    private Component renderRotating(@NotNull Player player, @NotNull PlayerTabState state) {
+        List<TabLine> rotatingLines = state.layout.rotating();
+        if (rotatingLines.isEmpty()) {
+            return Component.empty();
+        }
+
+        int index = Math.floorMod(rotatingIndex.get(), rotatingLines.size());
+        TabLine line = rotatingLines.get(index);
+        TabLine.Cache cache = state.rotating[index];
+
+        // Player-invariant messages are rendered once in the shared state
+        SharedTabState shared = sharedState;
+        if (line.isPlayerInvariant() && shared != null && shared.layout == state.layout
+                && shared.rotating[index].component() != null) {
+            cache.share(shared.rotating[index]);
         } else {
-            // Prevent recursion
-            resolvers.resolver(Placeholder.component("rotating", Component.empty()));
+            line.update(cache, serverValues, state.values,
+                    key -> key.equals(ROTATING_TAG) ? Component.empty() : lookup(player, state, key),
+                    token -> lookupToken(player, state, token));
         }
+        return Objects.requireNonNull(cache.component());
+    }
 
-        // Server placeholders
-        long onlineCount = Bukkit.getOnlinePlayers().stream().filter(p -> !isVanished(p)).count();
-        resolvers.resolver(Placeholder.unparsed("online", String.valueOf(onlineCount)));
-        resolvers.resolver(Placeholder.unparsed("max", String.valueOf(Bukkit.getMaxPlayers())));
+    /**
+     * Render the current rotating message when it is a server-wide value (lock held)
+     */
+    @NotNull
+    private Component renderSharedRotating() {
+        TabLayout current = layout;
+        List<TabLine> rotatingLines = current.rotating();
+        if (rotatingLines.isEmpty()) {
+            return Component.empty();
+        }
 
-        // TPS and performance
-        double[] tps = Bukkit.getTPS();
-        resolvers.resolver(Placeholder.unparsed("tps", TPS_FORMAT.format(tps[0])));
-        resolvers.resolver(Placeholder.unparsed("tps_5m", TPS_FORMAT.format(tps[1])));
-        resolvers.resolver(Placeholder.unparsed("tps_15m", TPS_FORMAT.format(tps[2])));
-        resolvers.resolver(Placeholder.component("performance", getPerformanceIndicator(tps[0])));
+        int index = Math.floorMod(rotatingIndex.get(), rotatingLines.size());
+        TabLine.Cache cache = sharedState(current).rotating[index];
+        rotatingLines.get(index).update(cache, serverValues, NO_PLAYER_VALUES,
+                key -> key.equals(ROTATING_TAG) ? Component.empty() : lookupServer(key), UnaryOperator.identity());
+        return Objects.requireNonNull(cache.component());
+    }
 
-        // MSPT
-        double mspt = Bukkit.getAverageTickTime();
-        resolvers.resolver(Placeholder.unparsed("mspt", MSPT_FORMAT.format(mspt)));
+    /**
+     * Get the current frame of an animation ("animation:name"), empty if unknown
+     */
+    @NotNull
+    private Component animationFrame(@NotNull String key) {
+        int colon = key.indexOf(':');
+        TabAnimation animation = colon < 0 ? null
+                : layout.animations().get(key.substring(colon + 1).toLowerCase(Locale.ROOT));
+        return animation != null ? animation.frame(Bukkit.getCurrentTick()) : Component.empty();
+    }
 
-        // Time
-        resolvers.resolver(Placeholder.unparsed("time", LocalTime.now().format(TIME_FORMAT)));
+    private static void putText(@NotNull VersionedValues values, @NotNull String key, @NotNull String text) {
+        values.put(key, text, Component::text);
+    }
 
-        // World player counts
-        resolvers.resolver(
-                Placeholder.unparsed("overworld", String.valueOf(getPlayersInEnvironment(World.Environment.NORMAL))));
-        resolvers.resolver(
-                Placeholder.unparsed("nether", String.valueOf(getPlayersInEnvironment(World.Environment.NETHER))));
-        resolvers.resolver(
-                Placeholder.unparsed("end", String.valueOf(getPlayersInEnvironment(World.Environment.THE_END))));
+    /**
+     * Get a slot value while rendering, computing it if no line declared it
+     */
+    @NotNull
+    private Component lookup(@NotNull Player player, @NotNull PlayerTabState state, @NotNull String key) {
+        Component value = serverValues.get(key);
+        if (value == null) {
+            value = state.values.get(key);
+        }
+        if (value == null) {
+            if (isPlayerKey(key, state.layout.rotatingShared())) {
+                putPlayerValue(player, state, key);
+                value = state.values.get(key);
+            } else {
+                synchronized (this) {
+                    putServerValue(key);
+                }
+                value = serverValues.get(key);
+            }
+        }
+        return value != null ? value : Component.empty();
+    }
 
-        // Total deaths
-        long totalDeaths = deathTracker.getTotalDeaths();
-        resolvers.resolver(Placeholder.unparsed("total_deaths", formatNumber(totalDeaths)));
+    /**
+     * Get a server-wide slot value while rendering shared lines (lock held)
+     */
+    @NotNull
+    private Component lookupServer(@NotNull String key) {
+        Component value = serverValues.get(key);
+        if (value == null) {
+            putServerValue(key);
+            value = serverValues.get(key);
+        }
+        return value != null ? value : Component.empty();
+    }
 
-        return miniMessage.deserialize(textWithPapi, resolvers.build());
+    /**
+     * Get a PlaceholderAPI token value while rendering
+     */
+    @NotNull
+    private String lookupToken(@NotNull Player player, @NotNull PlayerTabState state, @NotNull String token) {
+        String value = state.values.getRaw(token);
+        if (value == null) {
+            putPlayerValue(player, state, token);
+            value = state.values.getRaw(token);
+        }
+        return value != null ? value : token;
     }
 
     /**
-     * Get a colored TPS indicator
+     * Get a colored TPS indicator as a MiniMessage string
      */
     @NotNull
-    private Component getPerformanceIndicator(double tps) {
+    private String getPerformanceFormat(double tps) {
         String color;
         if (tps >= 19.5) {
             color = "<green>";
@@ -423,27 +1266,7 @@ public class TabListManager {
         } else {
             color = "<red>";
         }
-        return miniMessage.deserialize(color + TPS_FORMAT.format(Math.min(tps, 20.0)) + " TPS");
-    }
-
-    /**
-     * Get the number of players in a specific world environment
-     */
-    private int getPlayersInEnvironment(@NotNull World.Environment environment) {
-        int count = 0;
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            if (!isVanished(player) && player.getWorld().getEnvironment() == environment) {
-                count++;
-            }
-        }
-        return count;
-    }
-
-    /**
-     * Check if a player is vanished (SuperVanish/PremiumVanish support)
-     */
-    private boolean isVanished(@NotNull Player player) {
-        return player.hasMetadata("vanished");
+        return color + TPS_FORMAT.get().format(Math.min(tps, 20.0)) + " TPS";
     }
 
     /**
@@ -476,6 +1299,14 @@ public class TabListManager {
             updateTask.cancel();
             updateTask = null;
         }
+        if (rotationTask != null) {
+            rotationTask.cancel();
+            rotationTask = null;
+        }
+        if (animationTask != null) {
+            animationTask.cancel();
+            animationTask = null;
+        }
 
         // Clean up sorting teams
         for (String teamName : new ArrayList<>(createdSortTeams)) {
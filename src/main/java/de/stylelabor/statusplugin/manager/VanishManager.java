@@ -0,0 +1,199 @@
+package de.stylelabor.statusplugin.manager;
+
+import de.stylelabor.statusplugin.StatusPlugin;
+import de.stylelabor.statusplugin.config.ConfigManager;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks which online players are vanished.
+ *
+ * State is updated from SuperVanish/PremiumVanish events when available and
+ * from a periodic main-thread poll of the "vanished" metadata as a fallback,
+ * so renderers get an O(1) membership test instead of a metadata lookup.
+ */
+public class VanishManager implements Listener {
+
+    private static final String VANISH_METADATA = "vanished";
+    private static final String VANISH_EVENT_CLASS = "de.myzelyam.api.vanish.PlayerVanishStateChangeEvent";
+
+    private final StatusPlugin plugin;
+    private final ConfigManager configManager;
+    private final WorldCountTracker worldCountTracker;
+
+    private final Set<UUID> vanished = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> online = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger visibleCount = new AtomicInteger();
+
+    private BukkitTask pollTask;
+    private boolean eventsHooked = false;
+
+    public VanishManager(@NotNull StatusPlugin plugin,
+            @NotNull ConfigManager configManager,
+            @NotNull WorldCountTracker worldCountTracker) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.worldCountTracker = worldCountTracker;
+
+        // Pick up players that are already online (e.g. after /reload), also
+        // for the world counts, which need their vanish state
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            worldCountTracker.trackJoin(player, trackJoin(player));
+        }
+
+        hookVanishEvents();
+        startPollTask();
+    }
+
+    /**
+     * Listen to the SuperVanish/PremiumVanish state change event if present.
+     * The API is not a compile dependency, so the event is bound reflectively.
+     */
+    private void hookVanishEvents() {
+        try {
+            Class<? extends Event> eventClass = Class.forName(VANISH_EVENT_CLASS, true,
+                    getClass().getClassLoader()).asSubclass(Event.class);
+            Method getUuid = eventClass.getMethod("getUUID");
+            Method isVanishing = eventClass.getMethod("isVanishing");
+
+            Bukkit.getPluginManager().registerEvent(eventClass, this, EventPriority.MONITOR, (listener, event) -> {
+                if (!eventClass.isInstance(event)) {
+                    return;
+                }
+                try {
+                    setVanished((UUID) getUuid.invoke(event), (boolean) isVanishing.invoke(event));
+                } catch (ReflectiveOperationException e) {
+                    plugin.debug("Failed to read vanish event: " + e.getMessage());
+                }
+            }, plugin, true);
+
+            eventsHooked = true;
+            plugin.debug("Hooked SuperVanish/PremiumVanish events");
+        } catch (ClassNotFoundException | NoSuchMethodException | ClassCastException e) {
+            plugin.debug("No vanish plugin events found, using metadata polling");
+        }
+    }
+
+    /**
+     * Start the fallback metadata poll
+     */
+    private void startPollTask() {
+        long interval = configManager.getConfig().getLong("vanish.poll-interval", 5) * 20L;
+        if (interval <= 0)
+            return;
+
+        pollTask = Bukkit.getScheduler().runTaskTimer(plugin, this::poll, interval, interval);
+    }
+
+    /**
+     * Re-read the vanished metadata of every online player (main thread)
+     */
+    private void poll() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            setVanished(player.getUniqueId(), player.hasMetadata(VANISH_METADATA));
+        }
+    }
+
+    /**
+     * Start tracking a player (called on join)
+     *
+     * @return whether the player is vanished
+     */
+    public boolean trackJoin(@NotNull Player player) {
+        UUID uuid = player.getUniqueId();
+        boolean isVanished = player.hasMetadata(VANISH_METADATA);
+        synchronized (this) {
+            if (online.add(uuid)) {
+                if (isVanished) {
+                    vanished.add(uuid);
+                } else {
+                    visibleCount.incrementAndGet();
+                }
+            }
+        }
+        return isVanished;
+    }
+
+    /**
+     * Stop tracking a player (called on quit)
+     */
+    public synchronized void trackQuit(@NotNull UUID uuid) {
+        if (online.remove(uuid) && !vanished.remove(uuid)) {
+            visibleCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Update a player's vanish state
+     */
+    public void setVanished(@NotNull UUID uuid, boolean isVanished) {
+        synchronized (this) {
+            if (!online.contains(uuid)) {
+                return;
+            }
+            if (isVanished ? !vanished.add(uuid) : !vanished.remove(uuid)) {
+                return; // Unchanged
+            }
+            visibleCount.addAndGet(isVanished ? -1 : 1);
+        }
+        worldCountTracker.setVanished(uuid, isVanished);
+        plugin.debug("Vanish state of " + uuid + " changed: " + isVanished);
+    }
+
+    /**
+     * Get a read-only view of vanished players
+     */
+    @NotNull
+    public Set<UUID> getVanishedPlayers() {
+        return Collections.unmodifiableSet(vanished);
+    }
+
+    /**
+     * Get the number of online players that are not vanished
+     */
+    public int getVisibleCount() {
+        return visibleCount.get();
+    }
+
+    /**
+     * Check if vanish state is received from a vanish plugin's events
+     */
+    public boolean isEventsHooked() {
+        return eventsHooked;
+    }
+
+    /**
+     * Reload configuration and restart the poll task
+     */
+    public void reload() {
+        if (pollTask != null) {
+            pollTask.cancel();
+            pollTask = null;
+        }
+        startPollTask();
+    }
+
+    /**
+     * Stop polling and unregister event hooks
+     */
+    public void shutdown() {
+        if (pollTask != null) {
+            pollTask.cancel();
+            pollTask = null;
+        }
+        HandlerList.unregisterAll(this);
+    }
+}
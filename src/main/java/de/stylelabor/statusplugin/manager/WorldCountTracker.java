@@ -0,0 +1,109 @@
+package de.stylelabor.statusplugin.manager;
+
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Keeps per-world and per-environment counts of visible players.
+ * Counts are updated from join, quit, world change and vanish events so that
+ * placeholders can read them without looping over all online players.
+ */
+public class WorldCountTracker {
+
+    private static final World.Environment[] ENVIRONMENTS = World.Environment.values();
+
+    // Where each online player is counted
+    private final Map<UUID, Entry> players = new ConcurrentHashMap<>();
+
+    // World name (lower case) -> visible players
+    private final Map<String, AtomicInteger> worldCounts = new ConcurrentHashMap<>();
+
+    // Environment ordinal -> visible players
+    private final AtomicIntegerArray environmentCounts = new AtomicIntegerArray(ENVIRONMENTS.length);
+
+    /**
+     * Where a player is counted and whether they are hidden
+     */
+    private record Entry(String world, World.Environment environment, boolean vanished) {
+    }
+
+    /**
+     * Start counting a player (called on join)
+     */
+    public synchronized void trackJoin(@NotNull Player player, boolean vanished) {
+        World world = player.getWorld();
+        put(player.getUniqueId(), new Entry(world.getName().toLowerCase(), world.getEnvironment(), vanished));
+    }
+
+    /**
+     * Stop counting a player (called on quit)
+     */
+    public synchronized void trackQuit(@NotNull UUID uuid) {
+        Entry previous = players.remove(uuid);
+        if (previous != null) {
+            adjust(previous, -1);
+        }
+    }
+
+    /**
+     * Move a player to their current world (called on world change)
+     */
+    public synchronized void trackWorldChange(@NotNull Player player) {
+        Entry previous = players.get(player.getUniqueId());
+        World world = player.getWorld();
+        boolean vanished = previous != null && previous.vanished();
+        put(player.getUniqueId(), new Entry(world.getName().toLowerCase(), world.getEnvironment(), vanished));
+    }
+
+    /**
+     * Update whether a player is hidden from the counts
+     */
+    public synchronized void setVanished(@NotNull UUID uuid, boolean vanished) {
+        Entry previous = players.get(uuid);
+        if (previous == null || previous.vanished() == vanished) {
+            return;
+        }
+        put(uuid, new Entry(previous.world(), previous.environment(), vanished));
+    }
+
+    private void put(@NotNull UUID uuid, @NotNull Entry entry) {
+        Entry previous = players.put(uuid, entry);
+        if (previous != null) {
+            adjust(previous, -1);
+        }
+        adjust(entry, 1);
+    }
+
+    private void adjust(@NotNull Entry entry, int delta) {
+        if (entry.vanished()) {
+            return;
+        }
+        environmentCounts.addAndGet(entry.environment().ordinal(), delta);
+        AtomicInteger count = worldCounts.computeIfAbsent(entry.world(), key -> new AtomicInteger());
+        if (count.addAndGet(delta) <= 0) {
+            worldCounts.remove(entry.world());
+        }
+    }
+
+    /**
+     * Get the number of visible players in a world environment
+     */
+    public int getPlayersInEnvironment(@NotNull World.Environment environment) {
+        return environmentCounts.get(environment.ordinal());
+    }
+
+    /**
+     * Get the number of visible players in a world
+     */
+    public int getPlayersInWorld(@NotNull String worldName) {
+        AtomicInteger count = worldCounts.get(worldName.toLowerCase());
+        return count != null ? count.get() : 0;
+    }
+}
@@ -0,0 +1,94 @@
+package de.stylelabor.statusplugin.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Thread-safe memoisation cache with a maximum size and hit statistics.
+ * When full, the least recently used entry is evicted. Lookups take a short
+ * lock; values are computed outside of it.
+ */
+public final class BoundedCache<K, V> {
+
+    // Access-ordered, so the eldest entry is the least recently used one
+    private final LinkedHashMap<K, V> entries;
+    private final int maxSize;
+
+    // Guarded by entries
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Cache statistics
+     */
+    public record Stats(int size, int maxSize, long hits, long misses, long evictions) {
+
+        /**
+         * Get the share of lookups that were hits, between 0 and 1
+         */
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    public BoundedCache(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > BoundedCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the cached value for a key, computing and storing it on a miss.
+     * The loader runs outside any lock and may run more than once for the same
+     * key under contention.
+     */
+    @NotNull
+    public V get(@NotNull K key, @NotNull Function<? super K, ? extends V> loader) {
+        synchronized (entries) {
+            V value = entries.get(key);
+            if (value != null) {
+                hits++;
+                return value;
+            }
+            misses++;
+        }
+
+        V value = loader.apply(key);
+        synchronized (entries) {
+            entries.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Remove all entries (statistics are kept)
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Get the current statistics
+     */
+    @NotNull
+    public Stats getStats() {
+        synchronized (entries) {
+            return new Stats(entries.size(), maxSize, hits, misses, evictions);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package de.stylelabor.statusplugin.util;
+
+/**
+ * A flag that pending work checks to find out it is no longer wanted, e.g.
+ * because the player it was for has quit. Once cancelled it stays cancelled.
+ */
+public final class CancellationToken {
+
+    /**
+     * A token that is always cancelled
+     */
+    public static final CancellationToken CANCELLED = new CancellationToken(true);
+
+    private volatile boolean cancelled;
+
+    public CancellationToken() {
+        this(false);
+    }
+
+    private CancellationToken(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Cancel the work guarded by this token
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Check if the work guarded by this token should be skipped
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,105 @@
+package de.stylelabor.statusplugin.util;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Simple closed/open/half-open circuit breaker for remote services.
+ *
+ * The breaker opens after a number of consecutive failures and rejects calls
+ * until the open duration has passed. It then lets a single probe call through
+ * (half-open); the outcome of that probe decides whether it closes again.
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt = 0;
+    private boolean probeInFlight = false;
+    private long timesOpened = 0;
+
+    public CircuitBreaker(int failureThreshold, long openDurationMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationMillis = Math.max(0, openDurationMillis);
+    }
+
+    /**
+     * Check whether a call may be made right now
+     *
+     * @return true if the call is allowed, false if it should be short-circuited
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED -> {
+                return true;
+            }
+            case OPEN -> {
+                if (System.currentTimeMillis() - openedAt < openDurationMillis) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            }
+            default -> {
+                // Half-open: only one probe at a time
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Record a successful call
+     */
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    /**
+     * Record a failed call
+     */
+    public synchronized void recordFailure() {
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            consecutiveFailures = 0;
+            timesOpened++;
+        }
+    }
+
+    /**
+     * Check if the breaker was created with these settings
+     */
+    public boolean hasSettings(int failureThreshold, long openDurationMillis) {
+        return this.failureThreshold == Math.max(1, failureThreshold)
+                && this.openDurationMillis == Math.max(0, openDurationMillis);
+    }
+
+    /**
+     * Get the current state
+     */
+    @NotNull
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Get how many times the breaker has opened
+     */
+    public synchronized long getTimesOpened() {
+        return timesOpened;
+    }
+}
@@ -0,0 +1,72 @@
+package de.stylelabor.statusplugin.util;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A pre-parsed color/format such as "<red><bold>" used to color a component.
+ *
+ * Pure styles are applied by merging them into the component's own style, so
+ * no wrapper component is created. Formats that also contain text (e.g.
+ * "<red>★ ") keep the old behavior of prepending the parsed format.
+ *
+ * @param style  the style the format opens
+ * @param prefix the parsed format if it renders any text, otherwise null
+ */
+public record ColorFormat(@NotNull Style style, @Nullable Component prefix) {
+
+    private static final MiniMessage MINI_MESSAGE = MiniMessage.miniMessage();
+
+    // Text appended to the format to find the style that applies after it; a
+    // private use character, so it never collides with text in the format
+    private static final String PROBE = "\uE000";
+
+    /**
+     * Parse a MiniMessage format (legacy codes must already be converted)
+     */
+    @NotNull
+    public static ColorFormat parse(@NotNull String format) {
+        Component parsed = MINI_MESSAGE.deserialize(format + PROBE);
+        Style style = probeStyle(parsed, Style.empty());
+
+        Component prefix = null;
+        if (!PlainTextComponentSerializer.plainText().serialize(parsed).equals(PROBE)) {
+            prefix = MINI_MESSAGE.deserialize(format);
+        }
+        return new ColorFormat(style != null ? style : Style.empty(), prefix);
+    }
+
+    @Nullable
+    private static Style probeStyle(@NotNull Component component, @NotNull Style inherited) {
+        Style style = component.style().merge(inherited, Style.Merge.Strategy.IF_ABSENT_ON_TARGET);
+        if (component instanceof TextComponent text && text.content().endsWith(PROBE)) {
+            return style;
+        }
+        for (Component child : component.children()) {
+            Style found = probeStyle(child, style);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Color a component; its own style takes precedence over this format
+     */
+    @NotNull
+    public Component apply(@NotNull Component component) {
+        if (prefix != null) {
+            return prefix.append(component);
+        }
+        if (style.isEmpty()) {
+            return component;
+        }
+        return component.style(component.style().merge(style, Style.Merge.Strategy.IF_ABSENT_ON_TARGET));
+    }
+}
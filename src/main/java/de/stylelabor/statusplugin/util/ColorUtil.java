@@ -5,9 +5,6 @@ import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * Utility class for color/text parsing.
  * Handles MiniMessage format and legacy color code conversion.
@@ -18,23 +15,42 @@ public final class ColorUtil {
     private static final LegacyComponentSerializer LEGACY_AMPERSAND = LegacyComponentSerializer.legacyAmpersand();
     private static final LegacyComponentSerializer LEGACY_SECTION = LegacyComponentSerializer.legacySection();
 
-    // Pattern to detect legacy color codes
-    private static final Pattern LEGACY_PATTERN = Pattern.compile("&([0-9a-fk-or])", Pattern.CASE_INSENSITIVE);
-
-    // Pattern to detect hex color codes (&x&r&r&g&g&b&b or &#RRGGBB)
-    private static final Pattern HEX_PATTERN = Pattern.compile("&#([A-Fa-f0-9]{6})");
-    private static final Pattern BUKKIT_HEX_PATTERN = Pattern.compile(
-            "&x(&[A-Fa-f0-9]){6}", Pattern.CASE_INSENSITIVE);
+    // Parsed and stripped results of recently used strings (cleared on reload)
+    private static final int CACHE_SIZE = 1024;
+    private static final BoundedCache<String, Component> PARSE_CACHE = new BoundedCache<>(CACHE_SIZE);
+    private static final BoundedCache<String, String> STRIP_CACHE = new BoundedCache<>(CACHE_SIZE);
+
+    // Legacy code character -> MiniMessage tag
+    private static final String[] LEGACY_TAGS = new String[128];
+
+    static {
+        String codes = "0123456789abcdefklmnor";
+        String[] tags = { "<black>", "<dark_blue>", "<dark_green>", "<dark_aqua>", "<dark_red>",
+                "<dark_purple>", "<gold>", "<gray>", "<dark_gray>", "<blue>", "<green>", "<aqua>", "<red>",
+                "<light_purple>", "<yellow>", "<white>", "<obfuscated>", "<bold>", "<strikethrough>",
+                "<underlined>", "<italic>", "<reset>" };
+        for (int i = 0; i < codes.length(); i++) {
+            char code = codes.charAt(i);
+            LEGACY_TAGS[code] = tags[i];
+            LEGACY_TAGS[Character.toUpperCase(code)] = tags[i];
+        }
+    }
 
     private ColorUtil() {
         // Utility class, no instantiation
     }
 
     /**
-     * Parse a string that may contain MiniMessage or legacy color codes
+     * Parse a string that may contain MiniMessage or legacy color codes.
+     * Results are cached, so repeated messages are only parsed once.
      */
     @NotNull
     public static Component parse(@NotNull String text) {
+        return PARSE_CACHE.get(text, ColorUtil::parseUncached);
+    }
+
+    @NotNull
+    private static Component parseUncached(@NotNull String text) {
         // Check if it contains legacy color codes
         if (containsLegacyCodes(text)) {
             text = convertLegacyToMiniMessage(text);
@@ -44,76 +60,100 @@ public final class ColorUtil {
     }
 
     /**
-     * Check if text contains legacy color codes
+     * Check if text contains legacy color codes (&<code>, &#RRGGBB or
+     * &x&r&r&g&g&b&b)
      */
     public static boolean containsLegacyCodes(@NotNull String text) {
-        return LEGACY_PATTERN.matcher(text).find() ||
-                HEX_PATTERN.matcher(text).find() ||
-                BUKKIT_HEX_PATTERN.matcher(text).find();
+        int amp = text.indexOf('&');
+        while (amp >= 0 && amp + 1 < text.length()) {
+            char code = text.charAt(amp + 1);
+            // Bukkit hex always contains &<hex digit>, which is a legacy code
+            if ((code < LEGACY_TAGS.length && LEGACY_TAGS[code] != null)
+                    || (code == '#' && isHexRun(text, amp + 2, 6, 1))) {
+                return true;
+            }
+            amp = text.indexOf('&', amp + 1);
+        }
+        return false;
     }
 
     /**
-     * Convert legacy color codes to MiniMessage format
+     * Convert legacy color codes to MiniMessage format.
+     * Handles &#RRGGBB, &x&r&r&g&g&b&b and &<code> in a single pass and
+     * returns the input itself if it contains no '&'.
      */
     @NotNull
     public static String convertLegacyToMiniMessage(@NotNull String text) {
-        // Convert &#RRGGBB to <#RRGGBB>
-        Matcher hexMatcher = HEX_PATTERN.matcher(text);
-        StringBuilder result = new StringBuilder();
-        while (hexMatcher.find()) {
-            hexMatcher.appendReplacement(result, "<#" + hexMatcher.group(1) + ">");
+        int amp = text.indexOf('&');
+        if (amp < 0) {
+            return text;
         }
-        hexMatcher.appendTail(result);
-        text = result.toString();
-
-        // Convert Bukkit hex format &x&r&r&g&g&b&b
-        Matcher bukkitHexMatcher = BUKKIT_HEX_PATTERN.matcher(text);
-        result = new StringBuilder();
-        while (bukkitHexMatcher.find()) {
-            String match = bukkitHexMatcher.group();
-            String hex = match.replaceAll("&[xX]|&", "");
-            bukkitHexMatcher.appendReplacement(result, "<#" + hex + ">");
+
+        int length = text.length();
+        StringBuilder result = null;
+        int last = 0;
+        while (amp >= 0 && amp + 1 < length) {
+            char code = text.charAt(amp + 1);
+            String replacement = null;
+            int end = amp + 2;
+
+            if (code == '#' && isHexRun(text, amp + 2, 6, 1)) {
+                // &#RRGGBB
+                replacement = "<#" + text.substring(amp + 2, amp + 8) + ">";
+                end = amp + 8;
+            } else if ((code == 'x' || code == 'X') && isHexRun(text, amp + 2, 6, 2)) {
+                // &x&r&r&g&g&b&b
+                char[] hex = new char[6];
+                for (int i = 0; i < 6; i++) {
+                    hex[i] = text.charAt(amp + 3 + i * 2);
+                }
+                replacement = "<#" + new String(hex) + ">";
+                end = amp + 14;
+            } else if (code < LEGACY_TAGS.length) {
+                replacement = LEGACY_TAGS[code];
+            }
+
+            if (replacement != null) {
+                if (result == null) {
+                    result = new StringBuilder(length + 16);
+                }
+                result.append(text, last, amp).append(replacement);
+                last = end;
+                amp = text.indexOf('&', end);
+            } else {
+                amp = text.indexOf('&', amp + 1);
+            }
         }
-        bukkitHexMatcher.appendTail(result);
-        text = result.toString();
-
-        // Convert legacy codes to MiniMessage
-        text = text.replace("&0", "<black>")
-                .replace("&1", "<dark_blue>")
-                .replace("&2", "<dark_green>")
-                .replace("&3", "<dark_aqua>")
-                .replace("&4", "<dark_red>")
-                .replace("&5", "<dark_purple>")
-                .replace("&6", "<gold>")
-                .replace("&7", "<gray>")
-                .replace("&8", "<dark_gray>")
-                .replace("&9", "<blue>")
-                .replace("&a", "<green>")
-                .replace("&A", "<green>")
-                .replace("&b", "<aqua>")
-                .replace("&B", "<aqua>")
-                .replace("&c", "<red>")
-                .replace("&C", "<red>")
-                .replace("&d", "<light_purple>")
-                .replace("&D", "<light_purple>")
-                .replace("&e", "<yellow>")
-                .replace("&E", "<yellow>")
-                .replace("&f", "<white>")
-                .replace("&F", "<white>")
-                .replace("&k", "<obfuscated>")
-                .replace("&K", "<obfuscated>")
-                .replace("&l", "<bold>")
-                .replace("&L", "<bold>")
-                .replace("&m", "<strikethrough>")
-                .replace("&M", "<strikethrough>")
-                .replace("&n", "<underlined>")
-                .replace("&N", "<underlined>")
-                .replace("&o", "<italic>")
-                .replace("&O", "<italic>")
-                .replace("&r", "<reset>")
-                .replace("&R", "<reset>");
-
-        return text;
+
+        if (result == null) {
+            return text;
+        }
+        return result.append(text, last, length).toString();
+    }
+
+    /**
+     * Check for count hex digits starting at start, each preceded by '&' when
+     * stride is 2
+     */
+    private static boolean isHexRun(@NotNull String text, int start, int count, int stride) {
+        int offset = stride - 1;
+        if (start + count * stride > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            int pos = start + i * stride;
+            if (stride == 2 && text.charAt(pos) != '&') {
+                return false;
+            }
+            if (!isHexDigit(text.charAt(pos + offset))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
     }
 
     /**
@@ -137,8 +177,31 @@ public final class ColorUtil {
      */
     @NotNull
     public static String stripFormatting(@NotNull String text) {
-        Component component = parse(text);
-        return net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer
-                .plainText().serialize(component);
+        return STRIP_CACHE.get(text, key -> net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer
+                .plainText().serialize(parse(key)));
+    }
+
+    /**
+     * Clear the parse caches (called on reload)
+     */
+    public static void clearCaches() {
+        PARSE_CACHE.clear();
+        STRIP_CACHE.clear();
+    }
+
+    /**
+     * Get statistics of the parse cache
+     */
+    @NotNull
+    public static BoundedCache.Stats getParseCacheStats() {
+        return PARSE_CACHE.getStats();
+    }
+
+    /**
+     * Get statistics of the strip cache
+     */
+    @NotNull
+    public static BoundedCache.Stats getStripCacheStats() {
+        return STRIP_CACHE.getStats();
     }
 }
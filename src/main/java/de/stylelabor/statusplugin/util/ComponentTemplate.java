@@ -0,0 +1,395 @@
+package de.stylelabor.statusplugin.util;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TranslatableComponent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.minimessage.Context;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.Tag;
+import net.kyori.adventure.text.minimessage.tag.resolver.ArgumentQueue;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A MiniMessage format compiled once into a component tree with slots.
+ *
+ * Placeholder tags such as <player> become marker components at compile
+ * time. Rendering only swaps the markers for their values, so a format
+ * without PlaceholderAPI tokens is never parsed again.
+ *
+ * PlaceholderAPI tokens become markers too. Results that are plain text (no
+ * tags, legacy codes or escapes), like a ping or a player name, are inserted
+ * at their marker without parsing. Results with formatting are spliced into
+ * the format string and the whole string is parsed, so an open legacy color
+ * (e.g. a "&c[Admin] " prefix) still colors the text after it. Those trees are
+ * cached by the spliced string, which keeps markers for the plain results.
+ *
+ * Formats where that would change the output (a gradient/rainbow/transition
+ * around a slot, or a PlaceholderAPI token inside a tag) are rendered the
+ * old way: placeholders spliced into the string and parsed on every render.
+ */
+public final class ComponentTemplate {
+
+    private static final MiniMessage MINI_MESSAGE = MiniMessage.miniMessage();
+    private static final String MARKER_PREFIX = "statusplugin.slot.";
+    private static final String TOKEN_MARKER_PREFIX = "statusplugin.token.";
+    // Tag standing in for a PlaceholderAPI token with a plain result (<statusplugin_token:index>)
+    private static final String TOKEN_TAG = "statusplugin_token";
+    // Distinct formatted PlaceholderAPI result combinations kept parsed per template
+    private static final int TOKEN_TREE_CACHE_SIZE = 64;
+    private static final String[] CHARACTER_TAGS = { "<gradient", "<rainbow", "<transition" };
+
+    private final Predicate<String> slotNames;
+
+    // Format split around PlaceholderAPI tokens: parts.length == tokens.length + 1
+    private final String[] parts;
+    private final String[] tokens;
+
+    // Compiled tree, or null if the format has to be parsed on every render
+    @Nullable
+    private final Component compiled;
+    // Slot keys found in the compiled tree (empty for formats parsed per render)
+    private final Set<String> usedSlots;
+
+    // Parsed trees by format with the formatted PlaceholderAPI results spliced in
+    @Nullable
+    private final BoundedCache<String, Component> tokenTrees;
+
+    private ComponentTemplate(@NotNull String format, @NotNull Predicate<String> slotNames) {
+        this.slotNames = slotNames;
+
+        List<String> partList = new ArrayList<>();
+        List<String> tokenList = new ArrayList<>();
+        boolean tokenInTag = splitTokens(format, partList, tokenList);
+        this.parts = partList.toArray(new String[0]);
+        this.tokens = tokenList.toArray(new String[0]);
+        this.tokenTrees = tokens.length > 0 ? new BoundedCache<>(TOKEN_TREE_CACHE_SIZE) : null;
+
+        Component tree = null;
+        Set<String> used = new LinkedHashSet<>();
+        if (!tokenInTag) {
+            tree = compileTree(used);
+            if ((!used.isEmpty() || tokens.length > 0) && containsCharacterTag(format)) {
+                tree = null;
+            }
+        }
+        this.compiled = tree;
+        this.usedSlots = tree != null ? Collections.unmodifiableSet(used) : Set.of();
+    }
+
+    /**
+     * Compile a MiniMessage format (legacy codes must already be converted)
+     *
+     * @param format    the format string
+     * @param slotNames tag names that are filled in at render time
+     */
+    @NotNull
+    public static ComponentTemplate compile(@NotNull String format, @NotNull Collection<String> slotNames) {
+        return new ComponentTemplate(format, Set.copyOf(slotNames)::contains);
+    }
+
+    /**
+     * Compile a MiniMessage format (legacy codes must already be converted)
+     *
+     * @param format    the format string
+     * @param slotNames tests if a tag name is filled in at render time
+     */
+    @NotNull
+    public static ComponentTemplate compile(@NotNull String format, @NotNull Predicate<String> slotNames) {
+        return new ComponentTemplate(format, slotNames);
+    }
+
+    /**
+     * Split the format around %identifier% tokens.
+     *
+     * @return true if a token sits inside a MiniMessage tag
+     */
+    private static boolean splitTokens(@NotNull String format, @NotNull List<String> parts,
+            @NotNull List<String> tokens) {
+        boolean tokenInTag = false;
+        int depth = 0;
+        int last = 0;
+        int i = 0;
+        while (i < format.length()) {
+            char c = format.charAt(i);
+            if (c == '<') {
+                depth++;
+            } else if (c == '>' && depth > 0) {
+                depth--;
+            } else if (c == '%') {
+                int end = PlaceholderUtil.findTokenEnd(format, i);
+                if (end > 0) {
+                    if (depth > 0) {
+                        tokenInTag = true;
+                    }
+                    parts.add(format.substring(last, i));
+                    tokens.add(format.substring(i, end + 1));
+                    last = end + 1;
+                    i = end + 1;
+                    continue;
+                }
+            }
+            i++;
+        }
+        parts.add(format.substring(last));
+        return tokenInTag;
+    }
+
+    private static boolean containsCharacterTag(@NotNull String format) {
+        String lower = format.toLowerCase(Locale.ROOT);
+        for (String tag : CHARACTER_TAGS) {
+            if (lower.contains(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parse the format once, with markers in place of slots and tokens
+     */
+    @NotNull
+    private Component compileTree(@NotNull Set<String> used) {
+        Component tree = parseWithMarkers(spliced(null));
+        collectSlots(tree, used);
+        return tree;
+    }
+
+    /**
+     * Join the format parts with a marker tag for each token, or the token's
+     * result if it has formatting
+     *
+     * @param values the token results, or null to mark every token
+     */
+    @NotNull
+    private String spliced(@Nullable String[] values) {
+        StringBuilder source = new StringBuilder(parts[0]);
+        for (int i = 0; i < tokens.length; i++) {
+            if (values != null && !isPlain(values[i])) {
+                source.append(values[i]);
+            } else {
+                source.append('<').append(TOKEN_TAG).append(':').append(i).append('>');
+            }
+            source.append(parts[i + 1]);
+        }
+        return source.toString();
+    }
+
+    /**
+     * Check if a PlaceholderAPI result renders as its own text wherever it is
+     * spliced in
+     */
+    private static boolean isPlain(@NotNull String value) {
+        return value.indexOf('<') < 0 && value.indexOf('&') < 0 && value.indexOf('\\') < 0;
+    }
+
+    /**
+     * Parse a format with markers in place of slots and token tags
+     */
+    @NotNull
+    private Component parseWithMarkers(@NotNull String source) {
+        TagResolver markers = new TagResolver() {
+            @Override
+            @Nullable
+            public Tag resolve(@NotNull String name, @NotNull ArgumentQueue arguments, @NotNull Context ctx) {
+                if (name.equals(TOKEN_TAG)) {
+                    return Tag.selfClosingInserting(Component.translatable(TOKEN_MARKER_PREFIX
+                            + arguments.popOr("token index").value()));
+                }
+                if (!slotNames.test(name)) {
+                    return null;
+                }
+                StringBuilder key = new StringBuilder(name);
+                while (arguments.hasNext()) {
+                    key.append(':').append(arguments.pop().value());
+                }
+                return Tag.selfClosingInserting(marker(key.toString()));
+            }
+
+            @Override
+            public boolean has(@NotNull String name) {
+                return name.equals(TOKEN_TAG) || slotNames.test(name);
+            }
+        };
+
+        return MINI_MESSAGE.deserialize(source, markers);
+    }
+
+    @NotNull
+    private static Component marker(@NotNull String key) {
+        return Component.translatable(MARKER_PREFIX + key);
+    }
+
+    @Nullable
+    private static String markerKey(@NotNull Component component) {
+        if (component instanceof TranslatableComponent translatable
+                && translatable.key().startsWith(MARKER_PREFIX)) {
+            return translatable.key().substring(MARKER_PREFIX.length());
+        }
+        return null;
+    }
+
+    /**
+     * Get the index of the token a marker stands for, or -1
+     */
+    private static int tokenIndex(@NotNull Component component) {
+        if (component instanceof TranslatableComponent translatable
+                && translatable.key().startsWith(TOKEN_MARKER_PREFIX)) {
+            return Integer.parseInt(translatable.key().substring(TOKEN_MARKER_PREFIX.length()));
+        }
+        return -1;
+    }
+
+    private static void collectSlots(@NotNull Component component, @NotNull Set<String> used) {
+        String key = markerKey(component);
+        if (key != null) {
+            used.add(key);
+            return;
+        }
+        if (component.hoverEvent() != null && component.hoverEvent().value() instanceof Component hover) {
+            collectSlots(hover, used);
+        }
+        for (Component child : component.children()) {
+            collectSlots(child, used);
+        }
+    }
+
+    /**
+     * Render the template
+     *
+     * @param slots        value for a slot key (tag name, plus ":argument" for
+     *                     tags with arguments)
+     * @param placeholders resolves a raw PlaceholderAPI token (e.g. "%player_ping%")
+     */
+    @NotNull
+    public Component render(@NotNull Function<String, Component> slots, @NotNull UnaryOperator<String> placeholders) {
+        if (compiled == null) {
+            return renderDynamic(slots, placeholders);
+        }
+        if (usedSlots.isEmpty() && tokens.length == 0) {
+            return compiled;
+        }
+
+        String[] values = new String[tokens.length];
+        boolean formatted = false;
+        for (int i = 0; i < tokens.length; i++) {
+            values[i] = placeholders.apply(tokens[i]);
+            formatted |= !isPlain(values[i]);
+        }
+        Component tree = compiled;
+        if (formatted) {
+            tree = tokenTrees.get(spliced(values),
+                    source -> parseWithMarkers(ColorUtil.convertLegacyToMiniMessage(source)));
+        }
+        return substitute(tree, slots, values);
+    }
+
+    @NotNull
+    private Component substitute(@NotNull Component component, @NotNull Function<String, Component> slots,
+            @NotNull String[] values) {
+        String key = markerKey(component);
+        int token = key == null ? tokenIndex(component) : -1;
+        if (key != null || token >= 0) {
+            Component value;
+            if (key != null) {
+                value = slots.apply(key);
+            } else {
+                value = Component.text(values[token]);
+            }
+            // The marker may carry styles merged in from its parents,
+            // including a hover text with markers of its own
+            Style markerStyle = component.style();
+            if (markerStyle.hoverEvent() != null && markerStyle.hoverEvent().value() instanceof Component hover) {
+                markerStyle = markerStyle.hoverEvent(HoverEvent.showText(substitute(hover, slots, values)));
+            }
+            if (!markerStyle.isEmpty()) {
+                value = value.style(value.style().merge(markerStyle, Style.Merge.Strategy.IF_ABSENT_ON_TARGET));
+            }
+            return value;
+        }
+
+        Component result = component;
+        if (component.hoverEvent() != null && component.hoverEvent().value() instanceof Component hover) {
+            Component substituted = substitute(hover, slots, values);
+            if (substituted != hover) {
+                result = result.hoverEvent(HoverEvent.showText(substituted));
+            }
+        }
+
+        List<Component> children = component.children();
+        List<Component> newChildren = null;
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            Component substituted = substitute(child, slots, values);
+            if (substituted != child) {
+                if (newChildren == null) {
+                    newChildren = new ArrayList<>(children);
+                }
+                newChildren.set(i, substituted);
+            }
+        }
+        return newChildren != null ? result.children(newChildren) : result;
+    }
+
+    @NotNull
+    private Component renderDynamic(@NotNull Function<String, Component> slots,
+            @NotNull UnaryOperator<String> placeholders) {
+        StringBuilder text = new StringBuilder(parts[0]);
+        for (int i = 0; i < tokens.length; i++) {
+            text.append(placeholders.apply(tokens[i])).append(parts[i + 1]);
+        }
+
+        TagResolver values = new TagResolver() {
+            @Override
+            @Nullable
+            public Tag resolve(@NotNull String name, @NotNull ArgumentQueue arguments, @NotNull Context ctx) {
+                if (!slotNames.test(name)) {
+                    return null;
+                }
+                StringBuilder key = new StringBuilder(name);
+                while (arguments.hasNext()) {
+                    key.append(':').append(arguments.pop().value());
+                }
+                return Tag.selfClosingInserting(slots.apply(key.toString()));
+            }
+
+            @Override
+            public boolean has(@NotNull String name) {
+                return slotNames.test(name);
+            }
+        };
+
+        return MINI_MESSAGE.deserialize(ColorUtil.convertLegacyToMiniMessage(text.toString()), values);
+    }
+
+    /**
+     * Get the slot keys used by this template (empty for formats parsed per
+     * render, whose slots are only known while rendering)
+     */
+    @NotNull
+    public Set<String> getUsedSlots() {
+        return usedSlots;
+    }
+
+    /**
+     * Get the PlaceholderAPI tokens in this template, e.g. "%player_ping%"
+     */
+    @NotNull
+    public List<String> getPlaceholderTokens() {
+        return List.of(tokens);
+    }
+
+    /**
+     * Check if this template is parsed on every render
+     */
+    public boolean isDynamic() {
+        return compiled == null;
+    }
+}
@@ -0,0 +1,70 @@
+package de.stylelabor.statusplugin.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Update requests collected between two drains (one per tick).
+ *
+ * Requests for the same player collapse into one update with the union of
+ * their reason bits, and any number of shared refresh requests (e.g. the
+ * online count after a join) collapse into one refresh. A join storm of n
+ * players therefore costs n player updates, not one update of every online
+ * player per join.
+ */
+public final class PendingUpdates {
+
+    private final Map<UUID, Integer> players = new ConcurrentHashMap<>();
+    private final AtomicBoolean sharedRefresh = new AtomicBoolean(false);
+
+    /**
+     * Queue an update; reasons of requests for the same player are merged
+     */
+    public void request(@NotNull UUID uuid, int reasons) {
+        players.merge(uuid, reasons, (a, b) -> a | b);
+    }
+
+    /**
+     * Drop a player's queued update (e.g. on quit)
+     */
+    public void remove(@NotNull UUID uuid) {
+        players.remove(uuid);
+    }
+
+    /**
+     * Queue a refresh of the values shared by all players
+     */
+    public void requestSharedRefresh() {
+        sharedRefresh.set(true);
+    }
+
+    /**
+     * Check and clear the shared refresh request
+     *
+     * @return true if a shared refresh was requested since the last call
+     */
+    public boolean takeSharedRefresh() {
+        return sharedRefresh.getAndSet(false);
+    }
+
+    /**
+     * Remove the queued player updates and pass each to the consumer with
+     * its merged reasons
+     */
+    public void drain(@NotNull ObjIntConsumer<UUID> update) {
+        if (players.isEmpty()) {
+            return;
+        }
+        for (UUID uuid : players.keySet()) {
+            Integer reasons = players.remove(uuid);
+            if (reasons != null) {
+                update.accept(uuid, reasons);
+            }
+        }
+    }
+}
@@ -2,19 +2,58 @@ package de.stylelabor.statusplugin.util;
 
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import de.stylelabor.statusplugin.config.ConfigManager;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
 /**
  * Utility class for handling PlaceholderAPI parsing.
+ *
+ * Placeholder values can be cached per player with a TTL per placeholder
+ * (integrations.placeholderapi.cache), so expensive expansions are not asked
+ * again on every tab refresh or chat message.
  */
 public final class PlaceholderUtil {
 
+    // Cache key for placeholders parsed without a player
+    private static final UUID NO_PLAYER = new UUID(0, 0);
+
     private static boolean enabled = false;
     private static boolean initialized = false;
 
+    // TTLs in milliseconds by placeholder ("vault_eco_balance") or identifier ("vault")
+    private static volatile Map<String, Long> ttls = Map.of();
+    private static volatile long defaultTtl = 0;
+    private static volatile boolean cacheEnabled = false;
+
+    // Texts split around their %placeholder% tokens
+    private static final BoundedCache<String, Template> TEMPLATES = new BoundedCache<>(512);
+
+    // Player -> placeholder token -> cached value
+    private static final Map<UUID, Map<String, CachedValue>> VALUES = new ConcurrentHashMap<>();
+
+    /**
+     * A text split around its tokens: parts.length == tokens.length + 1
+     *
+     * @param ttls TTL per token in milliseconds (0 = not cached)
+     */
+    private record Template(String[] parts, String[] tokens, long[] ttls, boolean cached) {
+    }
+
+    private record CachedValue(String value, long expiresAt) {
+    }
+
     private PlaceholderUtil() {
         // Utility class
     }
@@ -31,6 +70,43 @@ public final class PlaceholderUtil {
 
         enabled = pluginPresent && configEnabled;
         initialized = true;
+        loadCacheConfig(configManager);
+    }
+
+    /**
+     * Load the placeholder cache settings and drop all cached values
+     */
+    public static void loadCacheConfig(@NotNull ConfigManager configManager) {
+        var config = configManager.getConfig();
+        Map<String, Long> loaded = new HashMap<>();
+        ConfigurationSection section = config.getConfigurationSection("integrations.placeholderapi.cache.ttl");
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                loaded.put(key.toLowerCase(), Math.max(0, section.getLong(key)));
+            }
+        }
+
+        ttls = Map.copyOf(loaded);
+        defaultTtl = Math.max(0, config.getLong("integrations.placeholderapi.cache.default-ttl", 0));
+        cacheEnabled = config.getBoolean("integrations.placeholderapi.cache.enabled", true)
+                && (defaultTtl > 0 || ttls.values().stream().anyMatch(ttl -> ttl > 0));
+        TEMPLATES.clear();
+        VALUES.clear();
+    }
+
+    /**
+     * Check if PlaceholderAPI parsing is enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Drop cached values of a player (called on quit, and again a tick later
+     * for renders that were still running)
+     */
+    public static void invalidate(@NotNull UUID uuid) {
+        VALUES.remove(uuid);
     }
 
     /**
@@ -46,7 +122,68 @@ public final class PlaceholderUtil {
         if (!enabled || text.indexOf('%') == -1) {
             return text;
         }
+        if (!cacheEnabled) {
+            return setPlaceholders(player, text);
+        }
+
+        Template template = TEMPLATES.get(text, PlaceholderUtil::tokenize);
+        // Only online players are cached, their values are dropped on quit
+        if (!template.cached() || (player != null && !player.isOnline())) {
+            return setPlaceholders(player, text);
+        }
+
+        UUID key = player != null ? player.getUniqueId() : NO_PLAYER;
+        Map<String, CachedValue> values = VALUES.computeIfAbsent(key, uuid -> new ConcurrentHashMap<>());
+        if (player != null && !player.isOnline()) {
+            // Quit while this render was running: don't leave the entry behind
+            VALUES.remove(key, values);
+        }
+        long now = System.currentTimeMillis();
+        StringBuilder result = new StringBuilder(text.length() + 16).append(template.parts()[0]);
+        for (int i = 0; i < template.tokens().length; i++) {
+            String token = template.tokens()[i];
+            long ttl = template.ttls()[i];
+            if (ttl <= 0) {
+                result.append(setPlaceholders(player, token));
+            } else {
+                CachedValue cached = values.get(token);
+                if (cached == null || cached.expiresAt() <= now) {
+                    cached = new CachedValue(setPlaceholders(player, token), now + ttl);
+                    values.put(token, cached);
+                }
+                result.append(cached.value());
+            }
+            result.append(template.parts()[i + 1]);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Replace each %identifier_params% token in text
+     *
+     * @param text     The text to scan
+     * @param resolver Value for a raw token (e.g. "%player_ping%")
+     * @return The text with all tokens replaced
+     */
+    @NotNull
+    public static String replaceTokens(@NotNull String text, @NotNull UnaryOperator<String> resolver) {
+        if (text.indexOf('%') == -1) {
+            return text;
+        }
+        Template template = TEMPLATES.get(text, PlaceholderUtil::tokenize);
+        if (template.tokens().length == 0) {
+            return text;
+        }
 
+        StringBuilder result = new StringBuilder(text.length() + 16).append(template.parts()[0]);
+        for (int i = 0; i < template.tokens().length; i++) {
+            result.append(resolver.apply(template.tokens()[i])).append(template.parts()[i + 1]);
+        }
+        return result.toString();
+    }
+
+    @NotNull
+    private static String setPlaceholders(@Nullable OfflinePlayer player, @NotNull String text) {
         try {
             return me.clip.placeholderapi.PlaceholderAPI.setPlaceholders(player, text);
         } catch (Throwable e) {
@@ -54,4 +191,98 @@ public final class PlaceholderUtil {
             return text;
         }
     }
+
+    /**
+     * Split a text around its tokens and look up their TTLs
+     */
+    @NotNull
+    private static Template tokenize(@NotNull String text) {
+        List<String> parts = new ArrayList<>();
+        List<String> tokens = new ArrayList<>();
+        int last = 0;
+        int start = text.indexOf('%');
+        while (start >= 0) {
+            int end = findTokenEnd(text, start);
+            if (end < 0) {
+                start = text.indexOf('%', start + 1);
+                continue;
+            }
+            parts.add(text.substring(last, start));
+            tokens.add(text.substring(start, end + 1));
+            last = end + 1;
+            start = text.indexOf('%', last);
+        }
+        parts.add(text.substring(last));
+
+        long[] tokenTtls = new long[tokens.size()];
+        boolean cached = false;
+        for (int i = 0; i < tokenTtls.length; i++) {
+            tokenTtls[i] = ttlFor(tokens.get(i));
+            cached |= tokenTtls[i] > 0;
+        }
+        return new Template(parts.toArray(new String[0]), tokens.toArray(new String[0]), tokenTtls, cached);
+    }
+
+    /**
+     * Get the TTL of a token: exact placeholder, then identifier, then default
+     */
+    private static long ttlFor(@NotNull String token) {
+        String name = token.substring(1, token.length() - 1).toLowerCase();
+        Long ttl = ttls.get(name);
+        if (ttl == null) {
+            ttl = ttls.get(name.substring(0, name.indexOf('_')));
+        }
+        return ttl != null ? ttl : defaultTtl;
+    }
+
+    /**
+     * Find the closing '%' of a PlaceholderAPI token (%identifier_params%)
+     *
+     * @param text  The text to scan
+     * @param start Index of the opening '%'
+     * @return Index of the closing '%', or -1 if there is no token at start
+     */
+    public static int findTokenEnd(@NotNull String text, int start) {
+        int i = start + 1;
+        while (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+            i++;
+        }
+        if (i == start + 1 || i >= text.length() || text.charAt(i) != '_') {
+            return -1;
+        }
+
+        // Parameters run up to the next '%' on the same line
+        for (int end = i + 1; end < text.length(); end++) {
+            char c = text.charAt(end);
+            if (c == '%') {
+                return end;
+            }
+            if (c == '\n') {
+                break;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parse relational placeholders (%rel_...%) between two players
+     *
+     * @param one  The first player (usually the subject)
+     * @param two  The second player (usually the viewer)
+     * @param text The text to parse
+     * @return The parsed text
+     */
+    @NotNull
+    public static String parseRelational(@NotNull Player one, @NotNull Player two, @NotNull String text) {
+        if (!enabled || !text.contains("%rel_")) {
+            return text;
+        }
+
+        try {
+            return me.clip.placeholderapi.PlaceholderAPI.setRelationalPlaceholders(one, two, text);
+        } catch (Throwable e) {
+            // Fallback if PAPI throws error
+            return text;
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package de.stylelabor.statusplugin.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.regex.Pattern;
+
+/**
+ * Hand-written scanner for http(s) URLs in plain text.
+ * Matches the same URLs as {@link #URL_PATTERN} without the regex engine.
+ */
+public final class UrlScanner {
+
+    /**
+     * The URLs the scanner finds, for APIs that need a pattern (e.g. replacing
+     * text in a component tree)
+     */
+    public static final Pattern URL_PATTERN = Pattern.compile(
+            "https?://[\\w\\-._~:/?#\\[\\]@!$&'()*+,;=%]+",
+            Pattern.CASE_INSENSITIVE);
+
+    // ASCII characters allowed after "://"
+    private static final boolean[] URL_CHARS = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            URL_CHARS[c] = true;
+            URL_CHARS[Character.toUpperCase(c)] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            URL_CHARS[c] = true;
+        }
+        for (char c : "_-.~:/?#[]@!$&'()*+,;=%".toCharArray()) {
+            URL_CHARS[c] = true;
+        }
+    }
+
+    private UrlScanner() {
+        // Utility class
+    }
+
+    /**
+     * Find the start of the next URL
+     *
+     * @param text The text to scan
+     * @param from Index to start scanning at
+     * @return Index of the URL's first character, or -1 if there is none
+     */
+    public static int indexOfUrl(@NotNull String text, int from) {
+        int colon = text.indexOf("://", from);
+        while (colon >= 0) {
+            int start = schemeStart(text, colon, from);
+            if (start >= 0 && colon + 3 < text.length() && isUrlChar(text.charAt(colon + 3))) {
+                return start;
+            }
+            colon = text.indexOf("://", colon + 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Find the end of a URL found by {@link #indexOfUrl(String, int)}
+     *
+     * @return Index just past the URL's last character
+     */
+    public static int urlEnd(@NotNull String text, int start) {
+        int i = text.indexOf("://", start) + 3;
+        while (i < text.length() && isUrlChar(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Check if text might contain a URL (cheap pre-check)
+     */
+    public static boolean mayContainUrl(@NotNull String text) {
+        return text.contains("://");
+    }
+
+    /**
+     * Get the start of "http" / "https" directly before "://", or -1
+     */
+    private static int schemeStart(@NotNull String text, int colon, int from) {
+        int start = colon - 4;
+        if (start > from && (text.charAt(colon - 1) == 's' || text.charAt(colon - 1) == 'S')) {
+            // https
+            start--;
+            if (text.regionMatches(true, start, "http", 0, 4)) {
+                return start;
+            }
+            return -1;
+        }
+        if (start >= from && text.regionMatches(true, start, "http", 0, 4)) {
+            return start;
+        }
+        return -1;
+    }
+
+    private static boolean isUrlChar(char c) {
+        return c < 128 && URL_CHARS[c];
+    }
+}
@@ -0,0 +1,125 @@
+package de.stylelabor.statusplugin.util;
+
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Placeholder values with change versions.
+ *
+ * A value's version only changes when the value itself changes, so a renderer
+ * can tell whether any input of a line moved since its last render by
+ * comparing versions instead of re-rendering.
+ */
+public final class VersionedValues {
+
+    // Shared by all instances so a version is never reused for another value
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * A value as text (for comparison and PlaceholderAPI splicing) and as a
+     * component; the component is null for raw-only values
+     */
+    private record Entry(@Nullable String raw, @Nullable Component component, long version) {
+    }
+
+    /**
+     * Set a value from its text; the component is only built if the text changed
+     *
+     * @return true if the value changed
+     */
+    public boolean put(@NotNull String key, @NotNull String raw,
+            @NotNull Function<String, Component> toComponent) {
+        Entry previous = entries.get(key);
+        if (previous != null && raw.equals(previous.raw())) {
+            return false;
+        }
+        entries.put(key, new Entry(raw, toComponent.apply(raw), VERSIONS.incrementAndGet()));
+        return true;
+    }
+
+    /**
+     * Set a value that is used as text only (e.g. a PlaceholderAPI result)
+     *
+     * @return true if the value changed
+     */
+    public boolean putRaw(@NotNull String key, @NotNull String raw) {
+        Entry previous = entries.get(key);
+        if (previous != null && raw.equals(previous.raw())) {
+            return false;
+        }
+        entries.put(key, new Entry(raw, null, VERSIONS.incrementAndGet()));
+        return true;
+    }
+
+    /**
+     * Set a rendered component; the value only changes if a different instance
+     * is passed, so callers should pass cached components when nothing changed
+     *
+     * @return true if the value changed
+     */
+    public boolean putComponent(@NotNull String key, @NotNull Component component) {
+        Entry previous = entries.get(key);
+        if (previous != null && previous.component() == component) {
+            return false;
+        }
+        entries.put(key, new Entry(null, component, VERSIONS.incrementAndGet()));
+        return true;
+    }
+
+    /**
+     * Get a value as a component, or null if absent or raw-only
+     */
+    @Nullable
+    public Component get(@NotNull String key) {
+        Entry entry = entries.get(key);
+        return entry != null ? entry.component() : null;
+    }
+
+    /**
+     * Get a value as text, or null if absent or component-only
+     */
+    @Nullable
+    public String getRaw(@NotNull String key) {
+        Entry entry = entries.get(key);
+        return entry != null ? entry.raw() : null;
+    }
+
+    /**
+     * Get the version of a value (0 if absent)
+     */
+    public long version(@NotNull String key) {
+        Entry entry = entries.get(key);
+        return entry != null ? entry.version() : 0;
+    }
+
+    /**
+     * Get the keys that currently have a value
+     */
+    @NotNull
+    public Set<String> keys() {
+        return entries.keySet();
+    }
+
+    /**
+     * Check if a key has a value
+     */
+    public boolean contains(@NotNull String key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Remove all values
+     */
+    public void clear() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,71 @@
+package de.stylelabor.statusplugin.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BoundedCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        BoundedCache<String, String> cache = new BoundedCache<>(2);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("a", key -> key + loads.incrementAndGet());
+        cache.get("b", key -> key + loads.incrementAndGet());
+        // Touch "a", so "b" is the least recently used
+        assertEquals("a1", cache.get("a", key -> key + loads.incrementAndGet()));
+        cache.get("c", key -> key + loads.incrementAndGet());
+
+        assertEquals("a1", cache.get("a", key -> key + loads.incrementAndGet()));
+        assertEquals("c3", cache.get("c", key -> key + loads.incrementAndGet()));
+        assertEquals("b4", cache.get("b", key -> key + loads.incrementAndGet()));
+
+        BoundedCache.Stats stats = cache.getStats();
+        assertEquals(2, stats.size());
+        assertEquals(3, stats.hits());
+        assertEquals(4, stats.misses());
+        assertEquals(2, stats.evictions());
+    }
+
+    @Test
+    void hotEntriesSurviveChurn() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(16);
+        AtomicInteger hotLoads = new AtomicInteger();
+        for (int i = 0; i < 10_000; i++) {
+            cache.get(-1, key -> hotLoads.incrementAndGet());
+            cache.get(i, key -> key);
+        }
+        assertEquals(1, hotLoads.get());
+    }
+
+    @Test
+    void staysBoundedUnderContention() throws InterruptedException {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(64);
+        AtomicInteger maxSeen = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int offset = t * 100_000;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    cache.get(offset + i, key -> key);
+                    maxSeen.accumulateAndGet(cache.getStats().size(), Math::max);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        BoundedCache.Stats stats = cache.getStats();
+        assertEquals(64, maxSeen.get());
+        assertEquals(64, stats.size());
+        assertEquals(8 * 20_000 - 64, stats.evictions());
+    }
+}
@@ -0,0 +1,176 @@
+package de.stylelabor.statusplugin.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks the single-pass legacy conversion against the previous regex and
+ * String.replace implementation, which is kept below as the reference.
+ */
+class ColorUtilTest {
+
+    private static final Pattern HEX_PATTERN = Pattern.compile("&#([A-Fa-f0-9]{6})");
+    private static final Pattern BUKKIT_HEX_PATTERN = Pattern.compile(
+            "&x(&[A-Fa-f0-9]){6}", Pattern.CASE_INSENSITIVE);
+
+    // Characters that can form or break up a legacy sequence
+    private static final char[] ALPHABET = { '&', '#', 'x', 'X', 'a', 'F', '0', '9', 'g', 'k', 'r', 'R', ' ' };
+
+    /**
+     * The previous convertLegacyToMiniMessage
+     */
+    @NotNull
+    private static String reference(@NotNull String text) {
+        Matcher hexMatcher = HEX_PATTERN.matcher(text);
+        StringBuilder result = new StringBuilder();
+        while (hexMatcher.find()) {
+            hexMatcher.appendReplacement(result, "<#" + hexMatcher.group(1) + ">");
+        }
+        hexMatcher.appendTail(result);
+        text = result.toString();
+
+        Matcher bukkitHexMatcher = BUKKIT_HEX_PATTERN.matcher(text);
+        result = new StringBuilder();
+        while (bukkitHexMatcher.find()) {
+            String match = bukkitHexMatcher.group();
+            String hex = match.replaceAll("&[xX]|&", "");
+            bukkitHexMatcher.appendReplacement(result, "<#" + hex + ">");
+        }
+        bukkitHexMatcher.appendTail(result);
+        text = result.toString();
+
+        return text.replace("&0", "<black>")
+                .replace("&1", "<dark_blue>")
+                .replace("&2", "<dark_green>")
+                .replace("&3", "<dark_aqua>")
+                .replace("&4", "<dark_red>")
+                .replace("&5", "<dark_purple>")
+                .replace("&6", "<gold>")
+                .replace("&7", "<gray>")
+                .replace("&8", "<dark_gray>")
+                .replace("&9", "<blue>")
+                .replace("&a", "<green>")
+                .replace("&A", "<green>")
+                .replace("&b", "<aqua>")
+                .replace("&B", "<aqua>")
+                .replace("&c", "<red>")
+                .replace("&C", "<red>")
+                .replace("&d", "<light_purple>")
+                .replace("&D", "<light_purple>")
+                .replace("&e", "<yellow>")
+                .replace("&E", "<yellow>")
+                .replace("&f", "<white>")
+                .replace("&F", "<white>")
+                .replace("&k", "<obfuscated>")
+                .replace("&K", "<obfuscated>")
+                .replace("&l", "<bold>")
+                .replace("&L", "<bold>")
+                .replace("&m", "<strikethrough>")
+                .replace("&M", "<strikethrough>")
+                .replace("&n", "<underlined>")
+                .replace("&N", "<underlined>")
+                .replace("&o", "<italic>")
+                .replace("&O", "<italic>")
+                .replace("&r", "<reset>")
+                .replace("&R", "<reset>");
+    }
+
+    private static void assertConverts(@NotNull String text) {
+        assertEquals(reference(text), ColorUtil.convertLegacyToMiniMessage(text), () -> "input: " + text);
+    }
+
+    @Test
+    void everyCodeCharacter() {
+        for (char code = 0; code < 256; code++) {
+            assertConverts("&" + code);
+            assertConverts("a&" + code + "b");
+            assertConverts("&" + code + "&" + code);
+        }
+    }
+
+    @Test
+    void legacyCodes() {
+        assertEquals("<red>[Admin] <reset><white>", ColorUtil.convertLegacyToMiniMessage("&c[Admin] &r&f"));
+        assertEquals("<gold><bold>Name", ColorUtil.convertLegacyToMiniMessage("&6&LName"));
+    }
+
+    @Test
+    void hexCodes() {
+        assertEquals("<#ff00AA>Name", ColorUtil.convertLegacyToMiniMessage("&#ff00AAName"));
+        assertConverts("&#ff00aa");
+        assertConverts("&#ff00a");
+        assertConverts("&#ff00ag");
+        assertConverts("&#&#ff00aa");
+        assertConverts("&#ff00aa0");
+    }
+
+    @Test
+    void bukkitHexCodes() {
+        assertEquals("<#ff00AA>Name", ColorUtil.convertLegacyToMiniMessage("&x&f&f&0&0&A&AName"));
+        assertConverts("&X&f&f&0&0&a&a");
+        assertConverts("&x&f&f&0&0&a");
+        assertConverts("&x&f&f&0&0&a&g");
+        assertConverts("&x&f&f&0&0&a&&a");
+        assertConverts("&x&x&f&f&0&0&a&a");
+        assertConverts("&x&#ff00aa&a");
+    }
+
+    @Test
+    void mixedAndInvalidSequences() {
+        assertConverts("&c[Admin] &#ff00aa&lName&r: &7hello & welcome");
+        assertConverts("&&c");
+        assertConverts("&&&");
+        assertConverts("&");
+        assertConverts("text&");
+        assertConverts("&z&g&#&x");
+        assertConverts("<red>already &aMiniMessage</red>");
+        assertConverts("&x&f&f&0&0&a&a&#00ff00&l&ktext");
+    }
+
+    @Test
+    void unchangedInputIsReturnedAsIs() {
+        String plain = "no codes here";
+        assertSame(plain, ColorUtil.convertLegacyToMiniMessage(plain));
+        String invalid = "&z & &#12";
+        assertSame(invalid, ColorUtil.convertLegacyToMiniMessage(invalid));
+    }
+
+    @Test
+    void allShortStrings() {
+        char[] buffer = new char[5];
+        for (int length = 0; length <= buffer.length; length++) {
+            int total = (int) Math.pow(ALPHABET.length, length);
+            for (int n = 0; n < total; n++) {
+                int rest = n;
+                for (int i = 0; i < length; i++) {
+                    buffer[i] = ALPHABET[rest % ALPHABET.length];
+                    rest /= ALPHABET.length;
+                }
+                assertConverts(new String(buffer, 0, length));
+            }
+        }
+    }
+
+    @Test
+    void randomStrings() {
+        String[] tokens = { "&", "&#", "&x", "&X", "&#ff00aa", "&x&f&f&0&0&a&a", "&c", "&L", "&r", "a", "F", "0", "g",
+                " ", "<", ">" };
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder();
+        for (int n = 0; n < 100_000; n++) {
+            text.setLength(0);
+            int parts = random.nextInt(12);
+            for (int i = 0; i < parts; i++) {
+                text.append(tokens[random.nextInt(tokens.length)]);
+            }
+            assertConverts(text.toString());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package de.stylelabor.statusplugin.util;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that compiled templates render the same text and styles as splicing
+ * the PlaceholderAPI results into the format and parsing the whole string.
+ */
+class ComponentTemplateTest {
+
+    private static final MiniMessage MINI_MESSAGE = MiniMessage.miniMessage();
+    private static final List<String> SLOTS = List.of("player", "message");
+    private static final Map<String, Component> SLOT_VALUES = Map.of(
+            "player", Component.text("Steve"),
+            "message", Component.text("hello"));
+
+    private static final String[] FORMATS = {
+            "%vault_prefix%<player>: <message>",
+            "<gray>%vault_prefix%<player><dark_gray>: </dark_gray><white><message>",
+            "<gray>[%vault_prefix%]</gray> <player>: <message>",
+            "<bold>%vault_prefix%</bold><player> %player_ping%ms: <message>",
+            "%vault_prefix%%vault_suffix%<player>: <message>",
+            "<hover:show_text:'<player>'>%vault_prefix%<player></hover>: <message>",
+            "%vault_prefix%",
+            "<aqua>%player_ping%</aqua>",
+    };
+
+    private static final String[] VALUES = {
+            "",
+            "plain ",
+            "&c[Admin] ",
+            "&c[Admin] &r",
+            "&a&l",
+            "&7[&bVIP&7] ",
+            "&#ff00aa[Hex] ",
+            "&x&f&f&0&0&a&a[Bukkit] ",
+            "<red>[Mod]</red> ",
+            "<red>[Mod] ",
+            "<bold>",
+            "&c[A] <green>B ",
+            "back\\slash ",
+            "<unknown>tag ",
+            "100 & more",
+    };
+
+    private record Run(String text, Style style) {
+    }
+
+    /**
+     * The output of parsing the format with the results spliced in
+     */
+    @NotNull
+    private static Component reference(@NotNull String format, @NotNull Map<String, String> results) {
+        String text = format;
+        for (Map.Entry<String, String> result : results.entrySet()) {
+            text = text.replace(result.getKey(), result.getValue());
+        }
+        TagResolver.Builder resolvers = TagResolver.builder();
+        SLOT_VALUES.forEach((name, value) -> resolvers.resolver(Placeholder.component(name, value)));
+        return MINI_MESSAGE.deserialize(ColorUtil.convertLegacyToMiniMessage(text), resolvers.build());
+    }
+
+    /**
+     * Text with the effective style of each piece, merging equal neighbours
+     */
+    @NotNull
+    private static List<Run> runs(@NotNull Component component) {
+        List<Run> runs = new ArrayList<>();
+        collectRuns(component, Style.empty(), runs);
+        return runs;
+    }
+
+    private static void collectRuns(@NotNull Component component, @NotNull Style inherited, @NotNull List<Run> runs) {
+        Style style = component.style().merge(inherited, Style.Merge.Strategy.IF_ABSENT_ON_TARGET);
+        if (component instanceof TextComponent text && !text.content().isEmpty()) {
+            int last = runs.size() - 1;
+            if (last >= 0 && runs.get(last).style().equals(style)) {
+                runs.set(last, new Run(runs.get(last).text() + text.content(), style));
+            } else {
+                runs.add(new Run(text.content(), style));
+            }
+        }
+        for (Component child : component.children()) {
+            collectRuns(child, style, runs);
+        }
+    }
+
+    private static void assertRendersLikeReference(@NotNull String format, @NotNull Map<String, String> results) {
+        ComponentTemplate template = ComponentTemplate.compile(format, SLOTS);
+        Component rendered = template.render(SLOT_VALUES::get, token -> results.getOrDefault(token, token));
+        assertEquals(runs(reference(format, results)), runs(rendered),
+                () -> "format: " + format + ", results: " + results);
+    }
+
+    @Test
+    void matchesWholeStringParse() {
+        for (String format : FORMATS) {
+            for (String prefix : VALUES) {
+                for (String suffix : new String[] { "", "&e*", "<blue>+</blue>" }) {
+                    assertRendersLikeReference(format, Map.of(
+                            "%vault_prefix%", prefix,
+                            "%vault_suffix%", suffix,
+                            "%player_ping%", "42"));
+                }
+            }
+        }
+    }
+
+    @Test
+    void legacyPrefixColorsTheRest() {
+        ComponentTemplate template = ComponentTemplate.compile("%vault_prefix%<player>", SLOTS);
+        Component rendered = template.render(SLOT_VALUES::get, token -> "&c[Admin] ");
+        List<Run> runs = runs(rendered);
+        assertEquals(1, runs.size());
+        assertEquals("[Admin] Steve", runs.get(0).text());
+        assertEquals(Style.style(NamedTextColor.RED), runs.get(0).style());
+    }
+
+    @Test
+    void tokensAreNotParsedWithTheFormat() {
+        ComponentTemplate template = ComponentTemplate.compile("<gray>%vault_prefix%<player>", SLOTS);
+        assertFalse(template.isDynamic());
+        assertEquals(List.of("%vault_prefix%"), template.getPlaceholderTokens());
+        assertEquals(Set.of("player"), template.getUsedSlots());
+    }
+
+    @Test
+    void tokenInsideTagOrGradientIsDynamic() {
+        assertTrue(ComponentTemplate.compile("<hover:show_text:'%player_ping%'><player>", SLOTS).isDynamic());
+        assertTrue(ComponentTemplate.compile("<gradient:red:blue>%vault_prefix%hi</gradient>", SLOTS).isDynamic());
+    }
+
+    @Test
+    void plainFormatRendersTheCompiledTree() {
+        ComponentTemplate template = ComponentTemplate.compile("<red>static", SLOTS);
+        Function<String, Component> slots = key -> {
+            throw new AssertionError("no slots expected");
+        };
+        Component first = template.render(slots, token -> token);
+        assertTrue(first == template.render(slots, token -> token));
+    }
+}
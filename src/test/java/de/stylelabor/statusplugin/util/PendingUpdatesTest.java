@@ -0,0 +1,101 @@
+package de.stylelabor.statusplugin.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Join-storm cost: how many player renders and shared refreshes the tab list
+ * does for n joins, driven the way PlayerListener and the per-tick drain use
+ * the queue.
+ */
+class PendingUpdatesTest {
+
+    // Same bits as TabListManager.UPDATE_NAME / UPDATE_HEADER / UPDATE_ALL
+    private static final int NAME = 1;
+    private static final int HEADER = 1 << 2;
+    private static final int ALL = 0b111;
+
+    private record Cost(int renders, int sharedRefreshes) {
+    }
+
+    /**
+     * Join players, a number per tick, and drain once per tick. Each join
+     * requests the new player's update and a shared refresh of the online
+     * count.
+     */
+    private static Cost joinStorm(int players, int joinsPerTick) {
+        PendingUpdates updates = new PendingUpdates();
+        int[] renders = { 0 };
+        int sharedRefreshes = 0;
+        int joined = 0;
+        while (joined < players) {
+            for (int i = 0; i < joinsPerTick && joined < players; i++, joined++) {
+                updates.request(new UUID(0, joined), ALL);
+                updates.requestSharedRefresh();
+            }
+            if (updates.takeSharedRefresh()) {
+                sharedRefreshes++;
+            }
+            updates.drain((uuid, reasons) -> renders[0]++);
+        }
+        return new Cost(renders[0], sharedRefreshes);
+    }
+
+    @Test
+    void joinStormCostIsLinear() {
+        for (int players : new int[] { 1, 10, 100, 500, 1000 }) {
+            for (int joinsPerTick : new int[] { 1, 5, players }) {
+                Cost cost = joinStorm(players, joinsPerTick);
+                String label = players + " players, " + joinsPerTick + " per tick";
+                // One render per joining player, not one per online player per join
+                assertEquals(players, cost.renders(), label);
+                // At most one shared refresh per tick
+                assertEquals((players + joinsPerTick - 1) / joinsPerTick, cost.sharedRefreshes(), label);
+            }
+        }
+    }
+
+    @Test
+    void requestsInOneTickCollapse() {
+        PendingUpdates updates = new PendingUpdates();
+        UUID uuid = new UUID(0, 1);
+        updates.request(uuid, NAME);
+        updates.request(uuid, HEADER);
+        updates.request(uuid, NAME);
+
+        List<Integer> drained = new ArrayList<>();
+        updates.drain((id, reasons) -> drained.add(reasons));
+        assertEquals(List.of(NAME | HEADER), drained);
+
+        updates.drain((id, reasons) -> drained.add(reasons));
+        assertEquals(1, drained.size());
+    }
+
+    @Test
+    void removedPlayerIsNotUpdated() {
+        PendingUpdates updates = new PendingUpdates();
+        updates.request(new UUID(0, 1), ALL);
+        updates.request(new UUID(0, 2), ALL);
+        updates.remove(new UUID(0, 1));
+
+        List<UUID> drained = new ArrayList<>();
+        updates.drain((uuid, reasons) -> drained.add(uuid));
+        assertEquals(List.of(new UUID(0, 2)), drained);
+    }
+
+    @Test
+    void sharedRefreshIsTakenOnce() {
+        PendingUpdates updates = new PendingUpdates();
+        updates.requestSharedRefresh();
+        updates.requestSharedRefresh();
+        assertTrue(updates.takeSharedRefresh());
+        assertFalse(updates.takeSharedRefresh());
+    }
+}